@@ -0,0 +1,73 @@
+package com.collectibles.benchmarks;
+
+import com.collectibles.database.DatabaseConfig;
+import com.collectibles.database.DatabaseService;
+import com.collectibles.item.Item;
+import com.collectibles.item.ItemService;
+import com.collectibles.money.Money;
+import com.collectibles.offer.OfferService;
+import com.collectibles.utils.ResourceVersions;
+import org.jdbi.v3.core.statement.PreparedBatch;
+import java.util.UUID;
+
+/**
+ * A fresh in-memory H2 database (PostgreSQL mode) with the application's schema,
+ * a synthetic catalog and the services wired the same way as in App.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    private final DatabaseService database;
+    private final ItemService itemService;
+    private final OfferService offerService;
+
+    /**
+     * @param catalogSize Number of items inserted before the services start
+     *                    (so the caches and indexes load them like at boot).
+     */
+    BenchmarkDatabase(int catalogSize) {
+        String url = "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+        database = new DatabaseService(new DatabaseConfig(url, "sa", "", 10, 2, 2_000, 30 * 60_000, null));
+        seedCatalog(catalogSize);
+
+        ResourceVersions versions = new ResourceVersions();
+        itemService = new ItemService(database.getJdbi(), versions);
+        offerService = new OfferService(database.getJdbi(),
+            itemId -> itemService.getItemById(itemId).map(Item::getName).orElse(itemId),
+            versions, itemService::applyCommittedPrice);
+    }
+
+    /** ID of the n-th synthetic item (0-based). */
+    static String itemId(int n) {
+        return "bench-" + n;
+    }
+
+    /** Listing price of the n-th synthetic item: spread over 1.00 .. 1000.00. */
+    static Money price(int n) {
+        return Money.ofCents(100 + (n * 7919L) % 99_900);
+    }
+
+    ItemService getItemService() { return itemService; }
+    OfferService getOfferService() { return offerService; }
+
+    @Override
+    public void close() {
+        database.close();
+    }
+
+    private void seedCatalog(int catalogSize) {
+        database.getJdbi().useTransaction(handle -> {
+            PreparedBatch batch = handle.prepareBatch(
+                "INSERT INTO items (id, name, description, price, imageUrl) " +
+                "VALUES (:id, :name, :description, :price, :imageUrl)");
+            for (int n = 0; n < catalogSize; n++) {
+                batch.bind("id", itemId(n))
+                     .bind("name", "Collectible #" + n)
+                     .bind("description", "Benchmark item " + n + ", signed and in mint condition.")
+                     .bind("price", price(n))
+                     .bind("imageUrl", "https://example.com/items/" + n + ".png")
+                     .add();
+            }
+            batch.execute();
+        });
+    }
+}
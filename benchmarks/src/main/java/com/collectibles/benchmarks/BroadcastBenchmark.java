@@ -0,0 +1,140 @@
+package com.collectibles.benchmarks;
+
+import com.collectibles.money.Money;
+import com.collectibles.websocket.PriceUpdateWebSocketHandler;
+import org.eclipse.jetty.websocket.api.BatchMode;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.UpgradeRequest;
+import org.eclipse.jetty.websocket.api.extensions.OutgoingFrames;
+import org.eclipse.jetty.websocket.common.LogicalConnection;
+import org.eclipse.jetty.websocket.common.WebSocketRemoteEndpoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fan-out of PriceUpdateWebSocketHandler.broadcastPriceUpdate to N subscribed sessions.
+ * The sessions are in-process stubs whose remote endpoint is Jetty's own
+ * WebSocketRemoteEndpoint writing into an OutgoingFrames that completes at once,
+ * so the measurement covers encoding, queuing and the async send chain but no network.
+ * Each invocation waits until every session has received the update.
+ * Ticks are not coalesced (WS_TICK_INTERVAL_MS=0), so every update is delivered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-DWS_TICK_INTERVAL_MS=0")
+public class BroadcastBenchmark {
+
+    private static final String ITEM_ID = "bench-broadcast";
+
+    @Param({"10", "100", "1000"})
+    public int sessions;
+
+    @Param({"text", "binary"})
+    public String format;
+
+    private final PriceUpdateWebSocketHandler handler = new PriceUpdateWebSocketHandler();
+    private final List<Session> connected = new ArrayList<>();
+    private final AtomicLong delivered = new AtomicLong();
+    private long priceCents = 100;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int n = 0; n < sessions; n++) {
+            Session session = stubSession(n);
+            handler.onConnect(session);
+            connected.add(session);
+        }
+        // Subscriptions complete asynchronously: wait for every SUBSCRIBED acknowledgement
+        while (delivered.get() < sessions) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (Session session : connected) {
+            handler.onClose(session, 1000, "done");
+        }
+    }
+
+    @Benchmark
+    public long broadcastPriceUpdate() {
+        // SUBSCRIBED acknowledgements also count as deliveries, so wait relative to now
+        long target = delivered.get() + sessions;
+        PriceUpdateWebSocketHandler.broadcastPriceUpdate(ITEM_ID, Money.ofCents(++priceCents));
+        while (delivered.get() < target) {
+            Thread.onSpinWait();
+        }
+        return target;
+    }
+
+    private Session stubSession(int n) {
+        OutgoingFrames network = (frame, callback, batchMode) -> {
+            delivered.incrementAndGet();
+            callback.writeSuccess();
+        };
+        RemoteEndpoint remote = new WebSocketRemoteEndpoint(stub(LogicalConnection.class, null), network, BatchMode.OFF);
+        InetSocketAddress address = InetSocketAddress.createUnresolved("client-" + n, 40000 + n % 20000);
+        Map<String, List<String>> parameters = Map.of("itemId", List.of(ITEM_ID), "format", List.of(format));
+        UpgradeRequest upgrade = stub(UpgradeRequest.class, (proxy, method, args) ->
+            "getParameterMap".equals(method.getName()) ? parameters : null);
+
+        return stub(Session.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getRemote": return remote;
+                case "getUpgradeRequest": return upgrade;
+                case "getRemoteAddress": return address;
+                case "isOpen": return true;
+                default: return null;
+            }
+        });
+    }
+
+    /**
+     * A proxy implementing the interface; identity equals/hashCode (the handler keys maps by session),
+     * everything else answered by the given handler (or returning null / false / 0).
+     */
+    private static <T> T stub(Class<T> type, InvocationHandler answers) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (self, method, args) -> {
+            switch (method.getName()) {
+                case "equals": return self == args[0];
+                case "hashCode": return System.identityHashCode(self);
+                case "toString": return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(self));
+                default:
+                    Object answer = answers != null ? answers.invoke(self, method, args) : null;
+                    return answer != null ? answer : defaultValue(method.getReturnType());
+            }
+        });
+        return type.cast(proxy);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        return null;
+    }
+}
@@ -0,0 +1,79 @@
+package com.collectibles.benchmarks;
+
+import com.collectibles.item.Item;
+import com.collectibles.item.ItemPage;
+import com.collectibles.item.ItemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog reads of ItemService: single-item lookups (item cache) and
+ * price-filtered listings (in-memory price index).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+
+    @Param({"10000"})
+    public int catalogSize;
+
+    private BenchmarkDatabase database;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase(catalogSize);
+        itemService = database.getItemService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public Optional<Item> getItemById() {
+        return itemService.getItemById(BenchmarkDatabase.itemId(ThreadLocalRandom.current().nextInt(catalogSize)));
+    }
+
+    @Benchmark
+    public Optional<Item> getItemByIdMissing() {
+        return itemService.getItemById("missing-" + ThreadLocalRandom.current().nextInt(catalogSize));
+    }
+
+    /** A narrow range: about 1% of the catalog. */
+    @Benchmark
+    public List<Item> getAllItemsNarrowFilter() {
+        return itemService.getAllItems("500", "510");
+    }
+
+    /** No filter: the whole catalog, cheapest first. */
+    @Benchmark
+    public List<Item> getAllItemsUnfiltered() {
+        return itemService.getAllItems(null, null);
+    }
+
+    @Benchmark
+    public ItemPage getItemsFirstPage() {
+        return itemService.getItemsPage("100", "900", null, null);
+    }
+}
@@ -0,0 +1,71 @@
+package com.collectibles.benchmarks;
+
+import com.collectibles.item.Item;
+import com.collectibles.money.Money;
+import com.collectibles.offer.Offer;
+import com.collectibles.utils.JsonUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonUtil.toJson on the lists returned by the item and offer endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"20", "1000"})
+    public int size;
+
+    private List<Item> items;
+    private List<Offer> offers;
+
+    @Setup
+    public void setUp() {
+        items = new ArrayList<>(size);
+        offers = new ArrayList<>(size);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int n = 0; n < size; n++) {
+            Item item = new Item();
+            item.setId(BenchmarkDatabase.itemId(n));
+            item.setName("Collectible #" + n);
+            item.setDescription("Benchmark item " + n + ", signed and in mint condition.");
+            item.setPrice(BenchmarkDatabase.price(n));
+            item.setImageUrl("https://example.com/items/" + n + ".png");
+            items.add(item);
+
+            Offer offer = new Offer("Bidder " + n, "bidder" + n + "@example.com", item.getId(),
+                Money.ofCents(100_000 - n));
+            offer.setOffer_id(n + 1);
+            offer.setCreated_at(now);
+            offers.add(offer);
+        }
+    }
+
+    @Benchmark
+    public String itemsToJson() {
+        return JsonUtil.toJson(items);
+    }
+
+    @Benchmark
+    public String offersToJson() {
+        return JsonUtil.toJson(offers);
+    }
+}
@@ -0,0 +1,93 @@
+package com.collectibles.benchmarks;
+
+import com.collectibles.exception.InvalidOfferException;
+import com.collectibles.money.Money;
+import com.collectibles.offer.Offer;
+import com.collectibles.offer.OfferService;
+import com.collectibles.offer.RankedOffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bid path of OfferService: accepted bids (high-bid check + group commit of the
+ * offer and the new price) and rejected bids (answered from the in-memory book),
+ * plus the ranking page query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OfferServiceBenchmark {
+
+    private static final String REJECT_ITEM = BenchmarkDatabase.itemId(0);
+
+    @Param({"1000"})
+    public int catalogSize;
+
+    private BenchmarkDatabase database;
+    private OfferService offerService;
+    // Every accepted bid is one cent above the previous one, whatever item it targets
+    private final AtomicLong nextBidCents = new AtomicLong(1_000_000);
+    private final AtomicLong nextItem = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidOfferException {
+        database = new BenchmarkDatabase(catalogSize);
+        offerService = database.getOfferService();
+        // A high bid that the rejected-bid benchmark never reaches
+        offerService.addOffer(new Offer("Seed", "seed@example.com", REJECT_ITEM, Money.ofCents(Long.MAX_VALUE / 2)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public Offer addOfferAccepted() throws InvalidOfferException {
+        String itemId = BenchmarkDatabase.itemId(1 + (int) (nextItem.getAndIncrement() % (catalogSize - 1)));
+        Money amount = Money.ofCents(nextBidCents.incrementAndGet());
+        Offer offer = new Offer("Bidder", "bidder@example.com", itemId, amount);
+        offerService.addOffer(offer);
+        return offer;
+    }
+
+    /** Same as {@link #addOfferAccepted()} with concurrent bidders sharing commits. */
+    @Benchmark
+    @Threads(8)
+    public Offer addOfferAcceptedConcurrent() throws InvalidOfferException {
+        return addOfferAccepted();
+    }
+
+    @Benchmark
+    public String addOfferRejected() {
+        try {
+            offerService.addOffer(new Offer("Bidder", "bidder@example.com", REJECT_ITEM, Money.ofCents(100)));
+            throw new IllegalStateException("Low bid was accepted");
+        } catch (InvalidOfferException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public List<RankedOffer> getTopRankedOffers() {
+        return offerService.getTopRankedOffers();
+    }
+}
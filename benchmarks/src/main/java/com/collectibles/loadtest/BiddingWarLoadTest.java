@@ -0,0 +1,304 @@
+package com.collectibles.loadtest;
+
+import com.collectibles.App;
+import com.collectibles.metrics.LatencyHistogram;
+import com.collectibles.utils.EnvConfig;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closing-minute bidding war against one instance: many concurrent bidders raising
+ * the price of a few items while thousands of WebSocket viewers watch them.
+ *
+ * Boots {@link App} in this JVM (against DB_URL, by default the local PostgreSQL)
+ * unless LOADTEST_BASE_URL points at a running server, then:
+ *   1. connects LOADTEST_VIEWERS WebSocket viewers, spread over the items;
+ *   2. runs LOADTEST_BIDDERS closed-loop bidders posting to POST /:id/offer,
+ *      each bid one cent above the last one handed out for that item;
+ *   3. after LOADTEST_WARMUP_SECONDS, measures for LOADTEST_DURATION_SECONDS.
+ *
+ * Reports bid throughput, bid latency and bid-to-frame latency (from sending the
+ * bid to a viewer receiving its OFFER delta and its PRICE_UPDATE frame) as
+ * p50/p99/p999, and writes them as JSON to LOADTEST_OUTPUT.
+ */
+public final class BiddingWarLoadTest {
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    // 64 buckets per power of two: p999s within about 1.6%, finer than the server's own metrics
+    private static final int HISTOGRAM_SUB_BUCKET_BITS = 6;
+
+    private final String baseUrl = EnvConfig.get("LOADTEST_BASE_URL", null);
+    private final List<String> itemIds = Arrays.asList(EnvConfig.get("LOADTEST_ITEM_IDS", "item1,item2,item3").split(","));
+    private final int bidders = EnvConfig.getInt("LOADTEST_BIDDERS", 64);
+    private final int viewers = EnvConfig.getInt("LOADTEST_VIEWERS", 2000);
+    private final int warmupSeconds = EnvConfig.getInt("LOADTEST_WARMUP_SECONDS", 5);
+    private final int durationSeconds = EnvConfig.getInt("LOADTEST_DURATION_SECONDS", 30);
+    private final Path output = Path.of(EnvConfig.get("LOADTEST_OUTPUT", "loadtest-results.json"));
+
+    private final HttpClient http = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    // Next bid (in cents) per item, shared by all bidders
+    private final Map<String, AtomicLong> nextBid = new ConcurrentHashMap<>();
+    // "itemId|cents" -> System.nanoTime() when the bid was sent
+    private final Map<String, Long> sentAt = new ConcurrentHashMap<>();
+
+    private final LatencyHistogram bidLatency = new LatencyHistogram(HISTOGRAM_SUB_BUCKET_BITS);
+    private final LatencyHistogram offerFrameLatency = new LatencyHistogram(HISTOGRAM_SUB_BUCKET_BITS);
+    private final LatencyHistogram priceFrameLatency = new LatencyHistogram(HISTOGRAM_SUB_BUCKET_BITS);
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder framesReceived = new LongAdder();
+
+    private volatile long measureStart = Long.MAX_VALUE;
+    private volatile boolean running = true;
+
+    public static void main(String[] args) throws Exception {
+        new BiddingWarLoadTest().run();
+        System.exit(0); // The embedded server threads are not daemons
+    }
+
+    private void run() throws Exception {
+        String target = baseUrl;
+        if (target == null) {
+            App.main(new String[0]);
+            spark.Spark.awaitInitialization();
+            target = "http://localhost:8080";
+        }
+        for (String itemId : itemIds) {
+            nextBid.put(itemId, new AtomicLong(currentPriceCents(target, itemId) + 100));
+        }
+
+        List<WebSocket> sockets = connectViewers(target);
+        System.out.println("[LoadTest] " + sockets.size() + "/" + viewers + " viewers connected, "
+            + bidders + " bidders on " + itemIds);
+
+        List<Thread> threads = new ArrayList<>(bidders);
+        for (int i = 0; i < bidders; i++) {
+            String bidUrlBase = target;
+            Thread thread = new Thread(() -> bidLoop(bidUrlBase), "bidder-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        long start = System.nanoTime();
+        measureStart = start;
+        long acceptedBefore = accepted.sum();
+        long rejectedBefore = rejected.sum();
+        long failedBefore = failed.sum();
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        long elapsed = System.nanoTime() - start;
+        long acceptedDuring = accepted.sum() - acceptedBefore;
+        long rejectedDuring = rejected.sum() - rejectedBefore;
+        long failedDuring = failed.sum() - failedBefore;
+
+        running = false;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        TimeUnit.SECONDS.sleep(1); // Let the last frames arrive
+        sockets.forEach(socket -> socket.sendClose(WebSocket.NORMAL_CLOSURE, "done"));
+
+        Map<String, Object> results = results(sockets.size(), elapsed, acceptedDuring, rejectedDuring, failedDuring);
+        try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            GSON.toJson(results, writer);
+        }
+        System.out.println(GSON.toJson(results));
+        System.out.println("[LoadTest] Results written to " + output.toAbsolutePath());
+    }
+
+    private void bidLoop(String target) {
+        while (running) {
+            String itemId = itemIds.get(ThreadLocalRandom.current().nextInt(itemIds.size()));
+            long cents = nextBid.get(itemId).incrementAndGet();
+            String amount = BigDecimal.valueOf(cents, 2).toPlainString();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(target + "/" + itemId + "/offer"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                    "bidderName=" + Thread.currentThread().getName()
+                    + "&bidderEmail=loadtest%40example.com&offerAmount=" + amount))
+                .build();
+
+            long sent = System.nanoTime();
+            sentAt.put(itemId + "|" + cents, sent);
+            try {
+                int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                long elapsed = System.nanoTime() - sent;
+                if (status == 201) {
+                    accepted.increment();
+                } else if (status == 400) {
+                    rejected.increment(); // Outbid by a concurrent bidder
+                } else {
+                    failed.increment();
+                }
+                if (sent >= measureStart) {
+                    bidLatency.record(elapsed);
+                }
+            } catch (IOException e) {
+                failed.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private List<WebSocket> connectViewers(String target) {
+        String wsBase = target.replaceFirst("^http", "ws") + "/ws/price-updates?itemId=";
+        List<CompletableFuture<WebSocket>> pending = new ArrayList<>(viewers);
+        for (int i = 0; i < viewers; i++) {
+            String itemId = itemIds.get(i % itemIds.size());
+            pending.add(http.newWebSocketBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .buildAsync(URI.create(wsBase + itemId), new Viewer()));
+        }
+        List<WebSocket> sockets = new ArrayList<>(viewers);
+        for (CompletableFuture<WebSocket> future : pending) {
+            try {
+                sockets.add(future.get(30, TimeUnit.SECONDS));
+            } catch (Exception e) {
+                System.err.println("[LoadTest] Viewer failed to connect: " + e.getMessage());
+            }
+        }
+        return sockets;
+    }
+
+    private long currentPriceCents(String target, String itemId) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(
+            HttpRequest.newBuilder(URI.create(target + "/api/items/" + itemId)).build(),
+            HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Item " + itemId + " not found (" + response.statusCode() + ")");
+        }
+        JsonObject item = JsonParser.parseString(response.body()).getAsJsonObject();
+        return item.get("price").getAsBigDecimal().movePointRight(2).longValueExact();
+    }
+
+    /** Matches an OFFER or PRICE_UPDATE frame to the bid that caused it. */
+    private void onFrame(String text) {
+        framesReceived.increment();
+        long now = System.nanoTime();
+        JsonObject frame = JsonParser.parseString(text).getAsJsonObject();
+        String type = frame.get("type").getAsString();
+        BigDecimal amount;
+        LatencyHistogram histogram;
+        if ("OFFER".equals(type)) {
+            amount = frame.getAsJsonObject("offer").get("amount").getAsBigDecimal();
+            histogram = offerFrameLatency;
+        } else if ("PRICE_UPDATE".equals(type)) {
+            amount = new BigDecimal(frame.get("newPrice").getAsString());
+            histogram = priceFrameLatency;
+        } else {
+            return; // SUBSCRIBED / SNAPSHOT
+        }
+        Long sent = sentAt.get(frame.get("itemId").getAsString() + "|" + amount.movePointRight(2).longValueExact());
+        if (sent != null && sent >= measureStart) {
+            histogram.record(now - sent);
+        }
+    }
+
+    private Map<String, Object> results(int connectedViewers, long elapsedNanos,
+                                        long acceptedDuring, long rejectedDuring, long failedDuring) {
+        double seconds = elapsedNanos / 1e9;
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("baseUrl", baseUrl != null ? baseUrl : "embedded");
+        config.put("items", itemIds);
+        config.put("bidders", bidders);
+        config.put("viewers", viewers);
+        config.put("warmupSeconds", warmupSeconds);
+        config.put("durationSeconds", durationSeconds);
+        config.put("javaVersion", Runtime.version().toString());
+        config.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+
+        Map<String, Object> bids = new LinkedHashMap<>();
+        bids.put("accepted", acceptedDuring);
+        bids.put("rejected", rejectedDuring);
+        bids.put("failed", failedDuring);
+        bids.put("requestsPerSecond", Math.round((acceptedDuring + rejectedDuring + failedDuring) / seconds));
+        bids.put("acceptedPerSecond", Math.round(acceptedDuring / seconds));
+        bids.put("latency", summary(bidLatency));
+
+        Map<String, Object> delivery = new LinkedHashMap<>();
+        delivery.put("connectedViewers", connectedViewers);
+        delivery.put("framesReceived", framesReceived.sum());
+        delivery.put("offerFrameLatency", summary(offerFrameLatency));
+        delivery.put("priceFrameLatency", summary(priceFrameLatency));
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("timestamp", Instant.now().toString());
+        results.put("measuredSeconds", Math.round(seconds * 10) / 10.0);
+        results.put("config", config);
+        results.put("bids", bids);
+        results.put("delivery", delivery);
+        return results;
+    }
+
+    /** Count, mean, p50/p90/p99/p999 and max in microseconds, for the results file. */
+    private static Map<String, Object> summary(LatencyHistogram histogram) {
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", snapshot.getCount());
+        summary.put("meanMicros", TimeUnit.NANOSECONDS.toMicros(snapshot.getMeanNanos()));
+        summary.put("p50Micros", TimeUnit.NANOSECONDS.toMicros(snapshot.percentileNanos(0.50)));
+        summary.put("p90Micros", TimeUnit.NANOSECONDS.toMicros(snapshot.percentileNanos(0.90)));
+        summary.put("p99Micros", TimeUnit.NANOSECONDS.toMicros(snapshot.percentileNanos(0.99)));
+        summary.put("p999Micros", TimeUnit.NANOSECONDS.toMicros(snapshot.percentileNanos(0.999)));
+        summary.put("maxMicros", TimeUnit.NANOSECONDS.toMicros(snapshot.getMaxNanos()));
+        return summary;
+    }
+
+    /** One WebSocket viewer; reassembles fragmented text frames. */
+    private final class Viewer implements WebSocket.Listener {
+
+        private final StringBuilder partial = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket socket, CharSequence data, boolean last) {
+            if (!last || partial.length() > 0) {
+                partial.append(data);
+            }
+            if (last) {
+                String text = partial.length() > 0 ? partial.toString() : data.toString();
+                partial.setLength(0);
+                try {
+                    onFrame(text);
+                } catch (RuntimeException e) {
+                    System.err.println("[LoadTest] Unreadable frame: " + e.getMessage());
+                }
+            }
+            socket.request(1);
+            return null;
+        }
+    }
+}
@@ -20,4 +20,18 @@ global.mockSocketInstance = mockSocketInstance;
 global.WebSocket = jest.fn((url) => {
   console.log(`[MockWebSocket] Connecting to: ${url}`);
   return mockSocketInstance;
-});
\ No newline at end of file
+});
+
+// Mock 3: EventSource (Interactive, used by the SSE fallback)
+const mockEventSourceInstance = {
+  listeners: {},
+  addEventListener: jest.fn((type, handler) => { mockEventSourceInstance.listeners[type] = handler; }),
+  onerror: () => {},
+};
+
+global.mockEventSourceInstance = mockEventSourceInstance;
+
+global.EventSource = jest.fn((url) => {
+  console.log(`[MockEventSource] Connecting to: ${url}`);
+  return mockEventSourceInstance;
+});
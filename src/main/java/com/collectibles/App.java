@@ -1,17 +1,28 @@
 package com.collectibles;
 
+import com.collectibles.database.DatabaseRouter;
 import com.collectibles.database.DatabaseService;
 import com.collectibles.exception.InvalidOfferException;
 import com.collectibles.exception.NotFoundException;
+import com.collectibles.item.Item;
 import com.collectibles.item.ItemController;
 import com.collectibles.item.ItemService;
+import com.collectibles.metrics.GcMetrics;
+import com.collectibles.metrics.HttpMetrics;
+import com.collectibles.metrics.Metrics;
+import com.collectibles.metrics.MetricsController;
 import com.collectibles.offer.OfferController;
 import com.collectibles.offer.OfferService;
+import com.collectibles.server.VirtualThreadServer;
+import com.collectibles.sse.PriceUpdateSseHandler;
 import com.collectibles.user.UserController;
 import com.collectibles.user.UserService;
+import com.collectibles.utils.Compression;
 import com.collectibles.utils.JsonUtil;
+import com.collectibles.utils.ResourceVersions;
+import com.collectibles.websocket.ItemSnapshot;
 import com.collectibles.websocket.PriceUpdateWebSocketHandler;
-import org.jdbi.v3.core.Jdbi;
+import com.collectibles.websocket.SnapshotProvider;
 import spark.ModelAndView;
 import spark.template.mustache.MustacheTemplateEngine;
 import java.util.Map;
@@ -26,6 +37,7 @@ public class App {
     public static void main(String[] args) {
 
         // --- 1. Server Configuration ---
+        VirtualThreadServer.installIfEnabled(); // Opt-in, must precede any route or WebSocket
         staticFiles.location("/public"); // Serve static files from src/main/resources/public
         port(8080);
         
@@ -34,25 +46,49 @@ public class App {
         
         // --- 2. Database & Template Engine Initialization ---
         
-        // Initialize the Database Service and get the Jdbi instance
+        // Initialize the Database Service and get the router over the primary (and read replica)
         DatabaseService dbService = new DatabaseService();
-        Jdbi jdbi = dbService.getJdbi();
+        DatabaseRouter router = dbService.getRouter();
 
         // Initialize the template engine
         MustacheTemplateEngine templateEngine = new MustacheTemplateEngine();
 
         // --- 3. Service Instantiation (Dependency Injection) ---
-        // Services are injected with the Jdbi instance
-        ItemService itemService = new ItemService(jdbi);
-        OfferService offerService = new OfferService(jdbi);
+        // Services are injected with the database router
+        // Per-item versions (ETags) shared by the item and offer resources
+        ResourceVersions itemVersions = new ResourceVersions();
+        ItemService itemService = new ItemService(router, itemVersions);
+        // The offer ranking resolves item names through the item cache,
+        // and accepted bids update the item cache and price index
+        OfferService offerService = new OfferService(router,
+            itemId -> itemService.getItemById(itemId).map(Item::getName).orElse(itemId),
+            itemVersions, itemService::applyCommittedPrice);
         // UserService remains in-memory as per our "Big Bang" plan
         UserService userService = new UserService(); 
         
+        // Snapshots sent to WebSocket and SSE clients when they subscribe to an item
+        SnapshotProvider snapshots = new SnapshotProvider() {
+            @Override
+            public boolean exists(String itemId) {
+                return itemService.getItemById(itemId).isPresent();
+            }
+
+            @Override
+            public ItemSnapshot load(String itemId, int offerLimit) {
+                return new ItemSnapshot(
+                    itemService.getItemById(itemId).orElse(null),
+                    offerService.getTopOffersByItemId(itemId, offerLimit));
+            }
+        };
+        PriceUpdateWebSocketHandler.setSnapshotProvider(snapshots);
+        PriceUpdateSseHandler.setSnapshotProvider(snapshots);
+        
         // --- 4. Controller Instantiation ---
         ItemController itemController = new ItemController(itemService);
         UserController userController = new UserController(userService);
         OfferController offerController = new OfferController(offerService);
         WebController webController = new WebController(itemService, offerService, templateEngine);
+        MetricsController metricsController = new MetricsController();
 
         // --- 5. Register Routes ---
         
@@ -61,11 +97,25 @@ public class App {
             itemController.registerRoutes();
             userController.registerRoutes();
             offerController.registerRoutes();
+            // GET /api/metrics and /api/metrics/prometheus
+            metricsController.registerRoutes();
+
+            // GET /api/stats/pool (live connection pool statistics)
+            get("/stats/pool", (req, res) -> dbService.getPoolStats(), JsonUtil::toJson);
+            // GET /api/stats/item-cache (hits, misses and evictions of the item cache)
+            get("/stats/item-cache", (req, res) -> itemService.getCacheStats(), JsonUtil::toJson);
+            // GET /api/stats/render-cache (hits and misses of the rendered-page cache)
+            get("/stats/render-cache", (req, res) -> webController.getRenderCacheStats(), JsonUtil::toJson);
+            // GET /api/stats/websocket (sessions and coalesced/published price updates)
+            get("/stats/websocket", (req, res) -> PriceUpdateWebSocketHandler.getStats(), JsonUtil::toJson);
         });
         
         // Web routes are registered at the root (/)
         webController.registerRoutes();
 
+        // Server-Sent Events fallback of /ws/price-updates (replays missed events on reconnect)
+        get("/sse/price-updates/:itemId", PriceUpdateSseHandler::stream);
+
         // --- 6. Global Exception Handlers & Filters ---
         
         // Filter to ensure all /api/ responses are JSON
@@ -75,6 +125,9 @@ public class App {
             }
         });
 
+        // Filter to gzip /api/ responses above API_GZIP_MIN_BYTES when the client accepts it
+        after("/api/*", Compression.filter());
+
         // (New) Handler for our custom "Offer must be higher" business logic
         exception(InvalidOfferException.class, (exception, req, res) -> {
             res.status(400); // 400 Bad Request
@@ -119,6 +172,34 @@ public class App {
             return templateEngine.render(new ModelAndView(model, "404.mustache"));
         });
 
+        // --- 7. Metrics ---
+        // Per-route latency (reads the routes registered above) and GC pauses
+        HttpMetrics.install();
+        GcMetrics.install();
+        // Live values read on each scrape
+        Metrics.gauge("ws_sessions", "Open WebSocket sessions",
+            () -> PriceUpdateWebSocketHandler.getStats().getSessions());
+        Metrics.gauge("ws_watched_items", "Items with at least one WebSocket subscriber",
+            () -> PriceUpdateWebSocketHandler.getStats().getWatchedItems());
+        Metrics.counterFunction("ws_price_updates_published_total", "Price updates sent after coalescing",
+            () -> PriceUpdateWebSocketHandler.getStats().getUpdatesPublished());
+        Metrics.counterFunction("ws_price_updates_coalesced_total", "Price updates merged into a later one",
+            () -> PriceUpdateWebSocketHandler.getStats().getUpdatesCoalesced());
+        Metrics.gauge("db_pool_connections", "Connections of the database pool",
+            () -> dbService.getPoolStats().getActive(), "state", "active");
+        Metrics.gauge("db_pool_connections", "Connections of the database pool",
+            () -> dbService.getPoolStats().getIdle(), "state", "idle");
+        Metrics.gauge("db_pool_waiters", "Threads waiting for a database connection",
+            () -> dbService.getPoolStats().getWaiters());
+        if (router.hasReplica()) {
+            Metrics.gauge("db_replica_lag_seconds", "Replication lag of the read replica (-1 if unreachable)",
+                () -> router.getReplicaLagMillis() < 0 ? -1 : router.getReplicaLagMillis() / 1000.0);
+            Metrics.counterFunction("db_reads_total", "Routed reads by database",
+                router::getPrimaryReads, "target", "primary");
+            Metrics.counterFunction("db_reads_total", "Routed reads by database",
+                router::getReplicaReads, "target", "replica");
+        }
+
         System.out.println("Servidor API y Web (con DB) iniciado en http://localhost:8080");
     }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.collectibles;
+
+import spark.ModelAndView;
+import spark.TemplateEngine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cache of rendered server-side pages, stored as UTF-8 bytes.
+ * Entries are keyed by template plus normalized query parameters and tagged with
+ * the data version they were rendered from; any item-price or offer change moves
+ * the version on, so the next request re-renders. Bounded by RENDER_CACHE_MAX_ENTRIES
+ * (least recently used pages are dropped first).
+ */
+class RenderCache {
+
+    private final TemplateEngine templateEngine;
+    private final LongSupplier dataVersion;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Page> pages;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param dataVersion Changes whenever data shown by the pages changes.
+     * @param maxEntries Maximum number of cached pages (0 disables the cache).
+     */
+    RenderCache(TemplateEngine templateEngine, LongSupplier dataVersion, int maxEntries) {
+        this.templateEngine = templateEngine;
+        this.dataVersion = dataVersion;
+        this.maxEntries = Math.max(0, maxEntries);
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Page> eldest) {
+                return size() > RenderCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached page for the key, or builds the model, renders and caches it.
+     * @param key Template name plus normalized parameters.
+     * @param model Builds the model (only called on a miss).
+     */
+    byte[] render(String key, Supplier<ModelAndView> model) {
+        // Read before loading the data, so a change during rendering is never cached as current
+        long version = dataVersion.getAsLong();
+        synchronized (this) {
+            Page page = pages.get(key);
+            if (page != null && page.version == version) {
+                hits.increment();
+                return page.html;
+            }
+        }
+        misses.increment();
+
+        byte[] html = templateEngine.render(model.get()).getBytes(StandardCharsets.UTF_8);
+        if (maxEntries > 0) {
+            synchronized (this) {
+                pages.put(key, new Page(html, version));
+            }
+        }
+        return html;
+    }
+
+    synchronized Map<String, Object> getStats() {
+        return Map.of(
+            "size", pages.size(),
+            "maxEntries", maxEntries,
+            "hits", hits.sum(),
+            "misses", misses.sum());
+    }
+
+    private static final class Page {
+        final byte[] html;
+        final long version;
+
+        Page(byte[] html, long version) {
+            this.html = html;
+            this.version = version;
+        }
+    }
+}
@@ -2,14 +2,19 @@ package com.collectibles;
 
 import com.collectibles.exception.NotFoundException;
 // --- ¡LA CORRECCIÓN ESTÁ AQUÍ! ---
-import com.collectibles.item.Item; 
+import com.collectibles.item.ItemPage;
 import com.collectibles.item.ItemService;
+import com.collectibles.money.Money;
 import com.collectibles.offer.Offer;
 import com.collectibles.offer.OfferService;
 import com.collectibles.offer.RankedOffer;
+import com.collectibles.sse.PriceUpdateSseHandler;
+import com.collectibles.utils.EnvConfig;
 import com.collectibles.websocket.PriceUpdateWebSocketHandler;
 import spark.ModelAndView;
 import spark.TemplateEngine;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,11 +25,22 @@ public class WebController {
     private final ItemService itemService;
     private final OfferService offerService;
     private final TemplateEngine templateEngine;
+    private final RenderCache renderCache;
 
     public WebController(ItemService itemService, OfferService offerService, TemplateEngine templateEngine) {
         this.itemService = itemService;
         this.offerService = offerService;
         this.templateEngine = templateEngine;
+        // Pages show prices and offers, so any item change re-renders them
+        this.renderCache = new RenderCache(templateEngine, itemService.getVersions()::globalVersion,
+            EnvConfig.getInt("RENDER_CACHE_MAX_ENTRIES", 256));
+    }
+
+    /**
+     * Hit/miss counters of the rendered-page cache.
+     */
+    public Map<String, Object> getRenderCacheStats() {
+        return renderCache.getStats();
     }
 
     public void registerRoutes() {
@@ -34,17 +50,29 @@ public class WebController {
          * (SSR) Renders the homepage with filters.
          */
         get("/", (req, res) -> {
-            String minPrice = req.queryParams("minPrice");
-            String maxPrice = req.queryParams("maxPrice");
-            
-            // This line (List<Item>) is why the import is needed
-            List<Item> items = itemService.getAllItems(minPrice, maxPrice); 
-            
-            Map<String, Object> model = new HashMap<>();
-            model.put("items", items);
-            model.put("minPrice", minPrice);
-            model.put("maxPrice", maxPrice);
-            return templateEngine.render(new ModelAndView(model, "index.mustache"));
+            // Normalized, so "100", "100.00" and "0100" share one cached page
+            // and junk parameters cannot fill the cache with copies of the first page
+            String minPrice = normalizePrice(req.queryParams("minPrice"));
+            String maxPrice = normalizePrice(req.queryParams("maxPrice"));
+            String after = itemService.normalizeCursor(req.queryParams("after"));
+            String limit = normalizeInt(req.queryParams("limit"));
+            String key = "index.mustache?minPrice=" + minPrice + "&maxPrice=" + maxPrice
+                + "&after=" + after + "&limit=" + limit;
+
+            res.type("text/html; charset=utf-8");
+            return renderCache.render(key, () -> {
+                // One page of the catalog (cheapest first), continued with ?after=<cursor>
+                ItemPage page = itemService.getItemsPage(minPrice, maxPrice, after, limit);
+
+                Map<String, Object> model = new HashMap<>();
+                model.put("items", page.getItems());
+                model.put("minPrice", minPrice);
+                model.put("maxPrice", maxPrice);
+                if (page.getNextCursor() != null) {
+                    model.put("nextUrl", nextPageUrl(minPrice, maxPrice, limit, page.getNextCursor()));
+                }
+                return new ModelAndView(model, "index.mustache");
+            });
         });
 
         // The specific /ranking route MUST come BEFORE the wildcard /:id route
@@ -53,10 +81,14 @@ public class WebController {
          * Displays the new server-side rendered ranking page.
          */
         get("/ranking", (req, res) -> {
-            List<RankedOffer> topOffers = offerService.getTopRankedOffers();
-            Map<String, Object> model = new HashMap<>();
-            model.put("offers", topOffers);
-            return templateEngine.render(new ModelAndView(model, "ranking.mustache"));
+            res.type("text/html; charset=utf-8");
+            return renderCache.render("ranking.mustache", () -> {
+                List<RankedOffer> topOffers = offerService.getTopRankedOffers();
+                Map<String, Object> model = new HashMap<>();
+                model.put("offers", topOffers);
+                model.put("size", offerService.getRankingSize());
+                return new ModelAndView(model, "ranking.mustache");
+            });
         });
         
         /**
@@ -79,30 +111,67 @@ public class WebController {
             String bidderName = req.queryParams("bidderName");
             String bidderEmail = req.queryParams("bidderEmail");
             
-            double offerAmount = 0.0;
+            Money offerAmount;
             try {
-                offerAmount = Double.parseDouble(req.queryParams("offerAmount"));
+                offerAmount = Money.parse(req.queryParams("offerAmount"));
             } catch (NumberFormatException e) {
                 res.status(400); // Bad Request
                 return "{\"error\":\"Invalid offer amount\"}";
             }
 
-            // Create and save the offer (this now throws an error if low)
+            // Create and save the offer (this now throws an error if low).
+            // The item price is updated in the same group commit as the offer,
+            // and the service brings the item cache and listings up to date.
             Offer newOffer = new Offer(bidderName, bidderEmail, id, offerAmount);
             offerService.addOffer(newOffer);
-            
-            System.out.println("[OFFER SAVED] Item ID: " + id + 
-                               ", Bidder: " + bidderName + 
-                               ", Amount: $" + offerAmount);
-
-            // Broadcast the WebSocket update
-            boolean updated = itemService.updateItemPrice(id, offerAmount);
-            if (updated) {
-                PriceUpdateWebSocketHandler.broadcastPriceUpdate(id, offerAmount);
-            }
+
+            // Broadcast the WebSocket updates (offer delta + new price)
+            PriceUpdateWebSocketHandler.broadcastOffer(newOffer);
+            PriceUpdateWebSocketHandler.broadcastPriceUpdate(id, offerAmount);
+            // Same event for Server-Sent Events clients (buffered for Last-Event-ID replay)
+            PriceUpdateSseHandler.publishOffer(newOffer);
 
             res.status(201); // 201 Created
             return "{\"success\":true, \"newPrice\":" + offerAmount + "}";
         });
     }
-}
\ No newline at end of file
+
+    /** Link to the next page, keeping the filters and the page size. */
+    private static String nextPageUrl(String minPrice, String maxPrice, String limit, String cursor) {
+        StringBuilder url = new StringBuilder("/?after=").append(cursor);
+        if (limit != null) {
+            url.append("&limit=").append(limit);
+        }
+        if (minPrice != null && !minPrice.isEmpty()) {
+            url.append("&minPrice=").append(URLEncoder.encode(minPrice, StandardCharsets.UTF_8));
+        }
+        if (maxPrice != null && !maxPrice.isEmpty()) {
+            url.append("&maxPrice=").append(URLEncoder.encode(maxPrice, StandardCharsets.UTF_8));
+        }
+        return url.toString();
+    }
+
+    /** Canonical form of a price parameter (null if missing, not a number or out of range). */
+    private static String normalizePrice(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            // Range-checked first: "1e100000000" would expand to a 100 MB plain string
+            return Money.parseDecimal(value).stripTrailingZeros().toPlainString();
+        } catch (NumberFormatException e) {
+            return null; // Ignored by the filter anyway
+        }
+    }
+
+    private static String normalizeInt(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.toString(Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.collectibles.database;
+
+/**
+ * Point-in-time snapshot of the connection pool, serialized as JSON
+ * by the stats endpoint.
+ */
+public class ConnectionPoolStats {
+
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final int maxSize;
+    private final int waiters;
+    private final long acquireCount;
+    private final double acquireAvgMicros;
+    private final double acquireMaxMicros;
+    private final long acquireTimeouts;
+
+    public ConnectionPoolStats(int active, int idle, int total, int maxSize, int waiters,
+                               long acquireCount, double acquireAvgMicros, double acquireMaxMicros,
+                               long acquireTimeouts) {
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.maxSize = maxSize;
+        this.waiters = waiters;
+        this.acquireCount = acquireCount;
+        this.acquireAvgMicros = acquireAvgMicros;
+        this.acquireMaxMicros = acquireMaxMicros;
+        this.acquireTimeouts = acquireTimeouts;
+    }
+
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+    public int getTotal() { return total; }
+    public int getMaxSize() { return maxSize; }
+    public int getWaiters() { return waiters; }
+    public long getAcquireCount() { return acquireCount; }
+    public double getAcquireAvgMicros() { return acquireAvgMicros; }
+    public double getAcquireMaxMicros() { return acquireMaxMicros; }
+    public long getAcquireTimeouts() { return acquireTimeouts; }
+}
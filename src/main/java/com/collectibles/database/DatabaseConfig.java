@@ -0,0 +1,114 @@
+package com.collectibles.database;
+
+import com.collectibles.utils.EnvConfig;
+
+/**
+ * Connection and pool settings for the database.
+ * Values are read from environment variables (see {@link #fromEnvironment()}),
+ * with defaults matching the local development setup.
+ */
+public class DatabaseConfig {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int poolSize;
+    private final int minIdle;
+    private final long acquireTimeoutMs;
+    private final long maxLifetimeMs;
+    private final String validationQuery;
+    private final Integer prepareThreshold;
+    private final Integer statementCacheQueries;
+
+    public DatabaseConfig(String url, String user, String password, int poolSize, int minIdle,
+                          long acquireTimeoutMs, long maxLifetimeMs, String validationQuery) {
+        this(url, user, password, poolSize, minIdle, acquireTimeoutMs, maxLifetimeMs, validationQuery, null, null);
+    }
+
+    /**
+     * @param prepareThreshold Executions of a statement after which PostgreSQL keeps it
+     *                         prepared on the server (0 disables, e.g. behind a transaction pooler);
+     *                         null keeps the driver's default (5).
+     * @param statementCacheQueries Statements kept prepared per connection (PostgreSQL only);
+     *                              null keeps the driver's default (256).
+     */
+    public DatabaseConfig(String url, String user, String password, int poolSize, int minIdle,
+                          long acquireTimeoutMs, long maxLifetimeMs, String validationQuery,
+                          Integer prepareThreshold, Integer statementCacheQueries) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.poolSize = poolSize;
+        this.minIdle = minIdle;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.maxLifetimeMs = maxLifetimeMs;
+        this.validationQuery = validationQuery;
+        this.prepareThreshold = prepareThreshold;
+        this.statementCacheQueries = statementCacheQueries;
+    }
+
+    /**
+     * Reads the primary database settings from the environment:
+     * DB_URL, DB_USER, DB_PASSWORD, DB_POOL_SIZE, DB_POOL_MIN_IDLE,
+     * DB_POOL_ACQUIRE_TIMEOUT_MS, DB_POOL_MAX_LIFETIME_MS, DB_POOL_VALIDATION_QUERY,
+     * DB_PREPARE_THRESHOLD and DB_STATEMENT_CACHE_QUERIES.
+     */
+    public static DatabaseConfig fromEnvironment() {
+        int poolSize = EnvConfig.getInt("DB_POOL_SIZE", 10);
+        return new DatabaseConfig(
+            EnvConfig.get("DB_URL", "jdbc:postgresql://localhost:5432/collectibles"),
+            EnvConfig.get("DB_USER", "postgres"),
+            EnvConfig.get("DB_PASSWORD", "Millon123"),
+            poolSize,
+            EnvConfig.getInt("DB_POOL_MIN_IDLE", poolSize),
+            EnvConfig.getLong("DB_POOL_ACQUIRE_TIMEOUT_MS", 2_000),
+            EnvConfig.getLong("DB_POOL_MAX_LIFETIME_MS", 30 * 60_000),
+            EnvConfig.get("DB_POOL_VALIDATION_QUERY", null),
+            optionalInt("DB_PREPARE_THRESHOLD", 5),
+            optionalInt("DB_STATEMENT_CACHE_QUERIES", 256));
+    }
+
+    /**
+     * Reads the settings of the read replica, or returns null when DB_READ_URL is unset.
+     * DB_READ_USER, DB_READ_PASSWORD, DB_READ_POOL_SIZE and DB_READ_POOL_MIN_IDLE
+     * default to the primary's values; the other pool settings are shared.
+     */
+    public static DatabaseConfig replicaFromEnvironment() {
+        String url = EnvConfig.get("DB_READ_URL", null);
+        if (url == null) {
+            return null;
+        }
+        DatabaseConfig primary = fromEnvironment();
+        int poolSize = EnvConfig.getInt("DB_READ_POOL_SIZE", primary.getPoolSize());
+        return new DatabaseConfig(
+            url,
+            EnvConfig.get("DB_READ_USER", primary.getUser()),
+            EnvConfig.get("DB_READ_PASSWORD", primary.getPassword()),
+            poolSize,
+            EnvConfig.getInt("DB_READ_POOL_MIN_IDLE", Math.min(primary.getMinIdle(), poolSize)),
+            primary.getAcquireTimeoutMs(),
+            primary.getMaxLifetimeMs(),
+            primary.getValidationQuery(),
+            primary.getPrepareThreshold(),
+            primary.getStatementCacheQueries());
+    }
+
+    /** The variable's value, or null when it is unset (invalid values fall back to the driver's default). */
+    private static Integer optionalInt(String name, int driverDefault) {
+        return EnvConfig.get(name, null) == null ? null : EnvConfig.getInt(name, driverDefault);
+    }
+
+    public String getUrl() { return url; }
+    public String getUser() { return user; }
+    public String getPassword() { return password; }
+    public int getPoolSize() { return poolSize; }
+    public int getMinIdle() { return minIdle; }
+    public long getAcquireTimeoutMs() { return acquireTimeoutMs; }
+    public long getMaxLifetimeMs() { return maxLifetimeMs; }
+    /** Null means "use the JDBC4 isValid() check". */
+    public String getValidationQuery() { return validationQuery; }
+    /** Null means "the driver's default". */
+    public Integer getPrepareThreshold() { return prepareThreshold; }
+    /** Null means "the driver's default". */
+    public Integer getStatementCacheQueries() { return statementCacheQueries; }
+}
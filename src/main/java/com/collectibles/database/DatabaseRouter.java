@@ -0,0 +1,178 @@
+package com.collectibles.database;
+
+import org.jdbi.v3.core.Jdbi;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Routes queries between the primary database and an optional read replica.
+ * Writes always go to the primary. Reads go to the replica only while it is
+ * reachable and its replication lag is at most {@code maxLagMillis} (checked every
+ * {@code checkIntervalMillis}); otherwise they fall back to the primary.
+ *
+ * Read-your-own-writes: after a write to a key (e.g. a bid on an item), reads of
+ * that key stay on the primary for a window long enough for any replica that
+ * passes the lag check to have replayed the write.
+ */
+public class DatabaseRouter {
+
+    // Lag of a PostgreSQL standby; 0 once it has replayed everything it received
+    private static final String POSTGRES_LAG_SQL =
+        "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+        "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+        "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final Jdbi primary;
+    private final Jdbi replica;
+    private final String lagSql;
+    private final long maxLagMillis;
+    private final long readYourWritesMillis;
+    private final ScheduledExecutorService monitor;
+
+    // Key -> time of its last write (System.nanoTime), dropped once the window has passed
+    private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+    private volatile boolean replicaFresh;
+    private volatile long replicaLagMillis = -1;
+    private boolean checked; // Confined to the monitor thread
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+
+    /**
+     * Routes everything to a single database (no replica configured).
+     */
+    public static DatabaseRouter primaryOnly(Jdbi jdbi) {
+        return new DatabaseRouter(jdbi, null, null, 0, 0, 0);
+    }
+
+    /**
+     * @param replicaUrl JDBC URL of the replica (picks the lag query).
+     * @param maxLagMillis Highest replication lag at which the replica still serves reads.
+     * @param readYourWritesMillis Minimum time a written key is read from the primary.
+     * @param checkIntervalMillis How often the replica's lag is measured.
+     */
+    DatabaseRouter(Jdbi primary, Jdbi replica, String replicaUrl,
+                   long maxLagMillis, long readYourWritesMillis, long checkIntervalMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMillis = Math.max(0, maxLagMillis);
+        // The lag may have grown since the last check, by up to one interval
+        this.readYourWritesMillis = Math.max(readYourWritesMillis, this.maxLagMillis + checkIntervalMillis);
+        if (replica == null) {
+            this.lagSql = null;
+            this.monitor = null;
+            return;
+        }
+        // Other databases (e.g. a second local H2 for tests) are taken as up to date when reachable
+        this.lagSql = replicaUrl.startsWith("jdbc:postgresql:") ? POSTGRES_LAG_SQL : "SELECT 0";
+        this.monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-replica-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        monitor.scheduleWithFixedDelay(this::checkReplica, 0, Math.max(100, checkIntervalMillis), TimeUnit.MILLISECONDS);
+    }
+
+    /** The primary, for writes and for reads that must see every committed write. */
+    public Jdbi write() {
+        return primary;
+    }
+
+    /** The replica if it is fresh enough, else the primary. */
+    public Jdbi read() {
+        if (replicaFresh) {
+            replicaReads.increment();
+            return replica;
+        }
+        primaryReads.increment();
+        return primary;
+    }
+
+    /** Like {@link #read()}, but the primary while the key was written recently. */
+    public Jdbi readFor(String key) {
+        Long writtenAt = recentWrites.get(key);
+        if (writtenAt != null && System.nanoTime() - writtenAt < TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis)) {
+            primaryReads.increment();
+            return primary;
+        }
+        return read();
+    }
+
+    /** Records a committed write to the key, so it is read from the primary for a while. */
+    public void markWritten(String key) {
+        if (replica != null) {
+            recentWrites.put(key, System.nanoTime());
+        }
+    }
+
+    /** On-demand SqlObject instances of the given interface on both databases. */
+    public <T> Routed<T> onDemand(Class<T> type) {
+        return new Routed<>(this, primary.onDemand(type), replica != null ? replica.onDemand(type) : null);
+    }
+
+    public boolean hasReplica() { return replica != null; }
+    public boolean isReplicaFresh() { return replicaFresh; }
+    /** Last measured replication lag, or -1 if unknown (no replica, or unreachable). */
+    public long getReplicaLagMillis() { return replicaLagMillis; }
+    public long getPrimaryReads() { return primaryReads.sum(); }
+    public long getReplicaReads() { return replicaReads.sum(); }
+
+    /** Stops the lag checks. */
+    void close() {
+        if (monitor != null) {
+            monitor.shutdownNow();
+        }
+    }
+
+    private void checkReplica() {
+        boolean wasReachable = replicaLagMillis >= 0;
+        try {
+            double lag = replica.withHandle(handle -> handle.createQuery(lagSql).mapTo(Double.class).one());
+            replicaLagMillis = (long) lag;
+            replicaFresh = replicaLagMillis <= maxLagMillis;
+            if (!wasReachable) {
+                System.out.println("[Database] Read replica available (lag " + replicaLagMillis + " ms).");
+            }
+        } catch (RuntimeException e) {
+            if (wasReachable || !checked) {
+                System.err.println("[Database] Read replica unavailable, reading from the primary: " + e.getMessage());
+            }
+            replicaLagMillis = -1;
+            replicaFresh = false;
+        }
+        checked = true;
+        long expired = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis);
+        recentWrites.values().removeIf(writtenAt -> writtenAt - expired < 0);
+    }
+
+    /**
+     * One SqlObject interface bound to both databases, picked per call like {@link Jdbi}s above.
+     */
+    public static final class Routed<T> {
+
+        private final DatabaseRouter router;
+        private final T primary;
+        private final T replica;
+
+        private Routed(DatabaseRouter router, T primary, T replica) {
+            this.router = router;
+            this.primary = primary;
+            this.replica = replica;
+        }
+
+        public T write() {
+            return primary;
+        }
+
+        public T read() {
+            return router.read() == router.primary ? primary : replica;
+        }
+
+        public T readFor(String key) {
+            return router.readFor(key) == router.primary ? primary : replica;
+        }
+    }
+}
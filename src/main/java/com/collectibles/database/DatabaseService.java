@@ -1,64 +1,135 @@
 package com.collectibles.database;
 
+import com.collectibles.money.Money;
+import com.collectibles.money.MoneyArgumentFactory;
+import com.collectibles.money.MoneyColumnMapper;
+import com.collectibles.utils.EnvConfig;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.sqlobject.SqlObjectPlugin;
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import javax.sql.DataSource;
 
 /**
- * Manages the Jdbi instance and database connection.
- * It's responsible for setting up the connection and creating the schema.
+ * Manages the Jdbi instances and database connections.
+ * It's responsible for setting up the connection pools and migrating the schema.
+ * With DB_READ_URL set, reads can also go to a read replica (see {@link DatabaseRouter}).
  */
 public class DatabaseService {
 
     private Jdbi jdbi;
+    private HikariDataSource dataSource;
+    private HikariDataSource readDataSource;
+    private DatabaseRouter router;
+    private final PoolMetricsTracker poolMetrics = new PoolMetricsTracker();
 
     /**
-     * Creates a new DatabaseService, connects to PostgreSQL,
-     * and initializes the database schema.
+     * Creates a new DatabaseService using the settings from the environment
+     * (with a read replica if DB_READ_URL is set).
      */
     public DatabaseService() {
-        // TODO: Move connection details to environment variables
-        String dbUrl = "jdbc:postgresql://localhost:5432/collectibles";
-        String user = "postgres";
-        String password = "Millon123"; // <-- (PASSWORD IS HERE)
+        this(DatabaseConfig.fromEnvironment(), DatabaseConfig.replicaFromEnvironment());
+    }
+
+    /**
+     * Creates a new DatabaseService without a read replica.
+     * @param config Connection and pool settings.
+     */
+    public DatabaseService(DatabaseConfig config) {
+        this(config, null);
+    }
 
+    /**
+     * Creates a new DatabaseService, opens bounded connection pools
+     * and initializes the database schema (on the primary only).
+     * @param config Connection and pool settings of the primary.
+     * @param readConfig Settings of the read replica, or null for none.
+     */
+    public DatabaseService(DatabaseConfig config, DatabaseConfig readConfig) {
         try {
-            this.jdbi = Jdbi.create(dbUrl, user, password);
-            this.jdbi.installPlugin(new SqlObjectPlugin());
+            this.dataSource = createDataSource(config, "collectibles-db", true);
+            this.jdbi = createJdbi(dataSource);
 
             System.out.println("Database connection established.");
 
-            // Create the tables if they don't exist
-            initializeDatabaseSchema();
+            // Create the tables, or upgrade them to the latest version
+            initializeDatabaseSchema(config);
+
+            if (readConfig == null) {
+                this.router = DatabaseRouter.primaryOnly(jdbi);
+            } else {
+                this.readDataSource = createDataSource(readConfig, "collectibles-db-read", false);
+                this.router = new DatabaseRouter(jdbi, createJdbi(readDataSource), readConfig.getUrl(),
+                    EnvConfig.getLong("DB_READ_MAX_LAG_MS", 1_000),
+                    EnvConfig.getLong("DB_READ_YOUR_WRITES_MS", 5_000),
+                    EnvConfig.getLong("DB_READ_LAG_CHECK_MS", 1_000));
+                System.out.println("Read replica configured: " + readConfig.getUrl());
+            }
 
         } catch (Exception e) {
             System.err.println("FATAL: Could not connect to the database.");
             e.printStackTrace();
+            close();
             throw new RuntimeException("Database connection failed", e);
         }
     }
 
+    private static Jdbi createJdbi(DataSource dataSource) {
+        Jdbi jdbi = Jdbi.create(dataSource);
+        jdbi.installPlugin(new SqlObjectPlugin());
+        // Prices and amounts are NUMERIC columns held as exact long cents
+        jdbi.registerColumnMapper(Money.class, new MoneyColumnMapper());
+        jdbi.registerArgument(new MoneyArgumentFactory());
+        return jdbi;
+    }
+
     /**
-     * Reads the schema.sql file from resources and executes it.
+     * Builds the Hikari pool that backs the Jdbi instance, so requests
+     * borrow an open connection instead of doing a TCP + auth handshake each time.
+     * @param primary False for the read replica: its pool is not tracked by the pool
+     *                metrics, and the app starts even if the replica is down.
      */
-    private void initializeDatabaseSchema() {
-        System.out.println("Initializing database schema...");
-        String schemaSql;
-        try (InputStream is = getClass().getClassLoader().getResourceAsStream("schema.sql")) {
-            if (is == null) {
-                throw new RuntimeException("schema.sql not found in resources");
+    private HikariDataSource createDataSource(DatabaseConfig config, String poolName, boolean primary) {
+        HikariConfig hikari = new HikariConfig();
+        hikari.setPoolName(poolName);
+        hikari.setJdbcUrl(config.getUrl());
+        hikari.setUsername(config.getUser());
+        hikari.setPassword(config.getPassword());
+        hikari.setMaximumPoolSize(config.getPoolSize());
+        hikari.setMinimumIdle(Math.min(config.getMinIdle(), config.getPoolSize()));
+        hikari.setConnectionTimeout(config.getAcquireTimeoutMs());
+        hikari.setMaxLifetime(config.getMaxLifetimeMs());
+        if (config.getValidationQuery() != null) {
+            hikari.setConnectionTestQuery(config.getValidationQuery());
+        }
+        if (config.getUrl().startsWith("jdbc:postgresql:")) {
+            // The app sends about a dozen distinct SQL strings (the DAO methods, the bid
+            // pipeline's two batches, the replica lag check), so the driver's defaults already
+            // keep every one prepared on the server after 5 executions; only explicit overrides are passed
+            if (config.getPrepareThreshold() != null) {
+                hikari.addDataSourceProperty("prepareThreshold", String.valueOf(config.getPrepareThreshold()));
             }
-            schemaSql = new String(is.readAllBytes(), StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read schema.sql", e);
+            if (config.getStatementCacheQueries() != null) {
+                hikari.addDataSourceProperty("preparedStatementCacheQueries",
+                    String.valueOf(config.getStatementCacheQueries()));
+            }
+        }
+        if (primary) {
+            hikari.setMetricsTrackerFactory(poolMetrics);
+        } else {
+            // Reads use the primary until the replica is reachable
+            hikari.setInitializationFailTimeout(-1);
         }
+        return new HikariDataSource(hikari);
+    }
 
-        // Execute the entire DDL script
-        this.jdbi.withHandle(handle -> 
-            handle.createScript(schemaSql).execute()
-        );
+    /**
+     * Brings the schema up to date with the versioned migrations (see {@link SchemaMigrator}).
+     */
+    private void initializeDatabaseSchema(DatabaseConfig config) {
+        System.out.println("Initializing database schema...");
+        new SchemaMigrator(this.jdbi, config.getUrl()).migrate();
         System.out.println("Database schema initialized.");
     }
 
@@ -69,4 +140,45 @@ public class DatabaseService {
     public Jdbi getJdbi() {
         return this.jdbi;
     }
+
+    /**
+     * Routes queries to the primary or the read replica.
+     * Without a replica every query goes to the primary.
+     */
+    public DatabaseRouter getRouter() {
+        return this.router;
+    }
+
+    /**
+     * Returns live statistics of the connection pool
+     * (active, idle, threads waiting and acquire latency).
+     */
+    public ConnectionPoolStats getPoolStats() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return new ConnectionPoolStats(
+            pool.getActiveConnections(),
+            pool.getIdleConnections(),
+            pool.getTotalConnections(),
+            dataSource.getMaximumPoolSize(),
+            pool.getThreadsAwaitingConnection(),
+            poolMetrics.getAcquireCount(),
+            poolMetrics.getAcquireAvgNanos() / 1_000.0,
+            poolMetrics.getAcquireMaxNanos() / 1_000.0,
+            poolMetrics.getTimeouts());
+    }
+
+    /**
+     * Stops the replica monitor and closes the connection pools.
+     */
+    public void close() {
+        if (router != null) {
+            router.close();
+        }
+        if (readDataSource != null) {
+            readDataSource.close();
+        }
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.collectibles.database;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hikari metrics hook that records how long callers wait to acquire a connection.
+ * Counters are lock-free so recording stays cheap on the request path.
+ */
+class PoolMetricsTracker implements IMetricsTracker, MetricsTrackerFactory {
+
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireTotalNanos = new LongAdder();
+    private final AtomicLong acquireMaxNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return this;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquireCount.increment();
+        acquireTotalNanos.add(elapsedAcquiredNanos);
+        acquireMaxNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    long getAcquireCount() { return acquireCount.sum(); }
+    long getTimeouts() { return timeouts.sum(); }
+    long getAcquireMaxNanos() { return acquireMaxNanos.get(); }
+
+    double getAcquireAvgNanos() {
+        long count = acquireCount.sum();
+        return count == 0 ? 0.0 : (double) acquireTotalNanos.sum() / count;
+    }
+}
@@ -0,0 +1,136 @@
+package com.collectibles.database;
+
+import com.collectibles.utils.EnvConfig;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies the versioned schema changes in src/main/resources/db/migration, in order
+ * and once each, recording every applied version in the schema_version table.
+ * A schema change is a new file added at the end of {@link #MIGRATIONS},
+ * never an edit of one that may already be applied.
+ *
+ * On PostgreSQL, DB_PARTITION_OFFERS=true also applies the optional migration that
+ * partitions offers by month, and creates the partitions of the coming months
+ * (OFFERS_PARTITION_MONTHS_AHEAD) on every start.
+ */
+class SchemaMigrator {
+
+    private static final String LOCATION = "db/migration/";
+
+    private static final List<String> MIGRATIONS = List.of(
+        "V1__baseline.sql",
+        "V2__items_high_bid.sql",
+        "V3__offer_and_price_indexes.sql");
+
+    private static final String PARTITION_OFFERS = "optional/P1__partition_offers.sql";
+
+    private static final String CREATE_VERSION_TABLE_SQL =
+        "CREATE TABLE IF NOT EXISTS schema_version (" +
+        "version VARCHAR(20) PRIMARY KEY, " +
+        "description VARCHAR(255) NOT NULL, " +
+        "installed_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP)";
+
+    // Any constant shared by all instances: servers starting together migrate one at a time
+    private static final long MIGRATION_LOCK_ID = 0x636f6c6c65637469L;
+
+    private final Jdbi jdbi;
+    private final boolean postgres;
+
+    SchemaMigrator(Jdbi jdbi, String url) {
+        this.jdbi = jdbi;
+        this.postgres = url.startsWith("jdbc:postgresql:");
+    }
+
+    void migrate() {
+        boolean partitionOffers = EnvConfig.getBoolean("DB_PARTITION_OFFERS", false);
+        if (partitionOffers && !postgres) {
+            System.err.println("[Schema] DB_PARTITION_OFFERS needs PostgreSQL, ignored.");
+            partitionOffers = false;
+        }
+        boolean partitioned = partitionOffers;
+        jdbi.useHandle(handle -> {
+            if (postgres) {
+                handle.execute("SELECT pg_advisory_lock(?)", MIGRATION_LOCK_ID);
+            }
+            try {
+                handle.execute(CREATE_VERSION_TABLE_SQL);
+                Set<String> applied = new HashSet<>(handle.createQuery("SELECT version FROM schema_version")
+                    .mapTo(String.class)
+                    .list());
+                for (String file : MIGRATIONS) {
+                    if (!applied.contains(version(file))) {
+                        apply(handle, file, false);
+                    }
+                }
+                if (partitioned) {
+                    if (!applied.contains(version(PARTITION_OFFERS))) {
+                        apply(handle, PARTITION_OFFERS, true);
+                    }
+                    handle.execute("SELECT create_offer_partitions(?)",
+                        EnvConfig.getInt("OFFERS_PARTITION_MONTHS_AHEAD", 3));
+                }
+            } finally {
+                if (postgres) {
+                    handle.execute("SELECT pg_advisory_unlock(?)", MIGRATION_LOCK_ID);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs one migration and records it, in a single transaction where the database allows it.
+     * @param nativeScript Sends the file to the driver as it is (PostgreSQL functions with $$ bodies)
+     *               instead of splitting it into statements.
+     */
+    private void apply(Handle handle, String file, boolean nativeScript) {
+        String sql = read(file);
+        System.out.println("[Schema] Applying " + file);
+        handle.useTransaction(tx -> {
+            if (nativeScript) {
+                try (Statement statement = tx.getConnection().createStatement()) {
+                    statement.execute(sql);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Migration " + file + " failed", e);
+                }
+            } else {
+                tx.createScript(sql).execute();
+            }
+            tx.createUpdate("INSERT INTO schema_version (version, description) VALUES (:version, :description)")
+                .bind("version", version(file))
+                .bind("description", description(file))
+                .execute();
+        });
+    }
+
+    private String read(String file) {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(LOCATION + file)) {
+            if (is == null) {
+                throw new IllegalStateException(LOCATION + file + " not found in resources");
+            }
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read " + LOCATION + file, e);
+        }
+    }
+
+    /** "V3__offer_and_price_indexes.sql" -> "V3" */
+    private static String version(String file) {
+        String name = file.substring(file.lastIndexOf('/') + 1);
+        return name.substring(0, name.indexOf("__"));
+    }
+
+    /** "V3__offer_and_price_indexes.sql" -> "offer and price indexes" */
+    private static String description(String file) {
+        String name = file.substring(file.lastIndexOf('/') + 1);
+        return name.substring(name.indexOf("__") + 2, name.length() - ".sql".length()).replace('_', ' ');
+    }
+}
@@ -1,5 +1,7 @@
 package com.collectibles.item;
 
+import com.collectibles.money.Money;
+
 /**
  * Model (POJO) for an Item.
  * Refactored to be a "Java Bean" with getters, setters,
@@ -9,7 +11,7 @@ public class Item {
     private String id;
     private String name;
     private String description;
-    private double price;
+    private Money price;
     private String imageUrl;
 
     /** No-arg constructor required by Jdbi */
@@ -19,13 +21,13 @@ public class Item {
     public String getId() { return id; }
     public String getName() { return name; }
     public String getDescription() { return description; }
-    public double getPrice() { return price; }
+    public Money getPrice() { return price; }
     public String getImageUrl() { return imageUrl; }
     
     // Setters
     public void setId(String id) { this.id = id; }
     public void setName(String name) { this.name = name; }
     public void setDescription(String description) { this.description = description; }
-    public void setPrice(double price) { this.price = price; }
+    public void setPrice(Money price) { this.price = price; }
     public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
 }
\ No newline at end of file
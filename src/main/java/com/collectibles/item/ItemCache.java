@@ -0,0 +1,136 @@
+package com.collectibles.item;
+
+import com.collectibles.money.Money;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of items by ID.
+ * Entries are evicted least-recently-used once the cache is full, and expire
+ * after a fixed time to live as a safety net for changes made outside this service.
+ * Writers either update an entry in place or invalidate it; a generation counter
+ * keeps a lookup that started before a write from caching the stale row.
+ */
+class ItemCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+    // Bumped by every write, guarded by "this"
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize Maximum number of cached items (0 disables the cache).
+     * @param ttlSeconds Time to live of an entry (0 means no expiry).
+     */
+    ItemCache(int maxSize, long ttlSeconds) {
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlNanos = ttlSeconds > 0 ? TimeUnit.SECONDS.toNanos(ttlSeconds) : 0;
+        // Access order: the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > ItemCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached item, or loads it (outside the lock) and caches it.
+     * Items that do not exist are not cached.
+     */
+    Optional<Item> get(String id, Function<String, Optional<Item>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(id);
+            if (entry != null && !entry.isExpired()) {
+                hits.increment();
+                return Optional.of(entry.item);
+            }
+            if (entry != null) {
+                entries.remove(id);
+                evictions.increment();
+            }
+            loadGeneration = generation;
+        }
+        misses.increment();
+
+        Optional<Item> loaded = loader.apply(id);
+        if (loaded.isPresent() && maxSize > 0) {
+            synchronized (this) {
+                // Skip caching if a write happened while we were reading
+                if (generation == loadGeneration) {
+                    entries.put(id, new Entry(loaded.get(), expiry()));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Updates the price of a cached item in place.
+     */
+    synchronized void updatePrice(String id, Money newPrice) {
+        generation++;
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            // Cached items are shared with readers, so replace rather than mutate
+            entries.put(id, new Entry(withPrice(entry.item, newPrice), entry.expiresAt));
+        }
+    }
+
+    synchronized void invalidate(String id) {
+        generation++;
+        entries.remove(id);
+    }
+
+    synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    synchronized ItemCacheStats getStats() {
+        return new ItemCacheStats(entries.size(), maxSize, TimeUnit.NANOSECONDS.toSeconds(ttlNanos),
+            hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private long expiry() {
+        return ttlNanos > 0 ? System.nanoTime() + ttlNanos : Long.MAX_VALUE;
+    }
+
+    static Item withPrice(Item item, Money price) {
+        Item copy = new Item();
+        copy.setId(item.getId());
+        copy.setName(item.getName());
+        copy.setDescription(item.getDescription());
+        copy.setImageUrl(item.getImageUrl());
+        copy.setPrice(price);
+        return copy;
+    }
+
+    private static final class Entry {
+        final Item item;
+        final long expiresAt;
+
+        Entry(Item item, long expiresAt) {
+            this.item = item;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return expiresAt != Long.MAX_VALUE && System.nanoTime() - expiresAt > 0;
+        }
+    }
+}
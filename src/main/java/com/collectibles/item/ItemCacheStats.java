@@ -0,0 +1,31 @@
+package com.collectibles.item;
+
+/**
+ * Point-in-time snapshot of the item cache, serialized as JSON
+ * by the stats endpoint.
+ */
+public class ItemCacheStats {
+
+    private final int size;
+    private final int maxSize;
+    private final long ttlSeconds;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    public ItemCacheStats(int size, int maxSize, long ttlSeconds, long hits, long misses, long evictions) {
+        this.size = size;
+        this.maxSize = maxSize;
+        this.ttlSeconds = ttlSeconds;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public int getSize() { return size; }
+    public int getMaxSize() { return maxSize; }
+    public long getTtlSeconds() { return ttlSeconds; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+}
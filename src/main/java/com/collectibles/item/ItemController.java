@@ -3,7 +3,14 @@ package com.collectibles.item;
 import static spark.Spark.*;
 
 import com.collectibles.exception.NotFoundException;
+import com.collectibles.utils.EnvConfig;
 import com.collectibles.utils.JsonUtil;
+import com.google.gson.JsonParseException;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
 
 /**
  * ItemController (Refactored for "Big Bang")
@@ -13,6 +20,8 @@ import com.collectibles.utils.JsonUtil;
 public class ItemController {
 
     private final ItemService itemService;
+    // Secret of the admin import route; the route is disabled when unset
+    private final String adminToken = EnvConfig.get("ADMIN_TOKEN", null);
 
     public ItemController(ItemService itemService) {
         this.itemService = itemService;
@@ -22,21 +31,55 @@ public class ItemController {
         
         path("/items", () -> {
 
+            // GET /api/items?minPrice=&maxPrice=&limit=&after= (one page, cheapest first)
+            get("", (req, res) -> itemService.getItemsPage(
+                    req.queryParams("minPrice"),
+                    req.queryParams("maxPrice"),
+                    req.queryParams("after"),
+                    req.queryParams("limit")),
+                JsonUtil::toJson);
+
             // GET /api/items/:id (Used by item-detail-app.js)
             get("/:id", (req, res) -> {
                 String id = req.params(":id");
+                // 304 if the client's copy is current: no lookup, no serialization
+                if (itemService.getVersions().notModified(req, res, id,
+                        () -> itemService.getItemById(id).isPresent())) {
+                    return ""; // Empty body, so not passed through the JSON transformer
+                }
                 
                 // This method (getItemById) *does* exist in our new Jdbi service
-                return itemService.getItemById(id)
-                    .orElseThrow(() -> new NotFoundException("API: Item not found"));
+                return JsonUtil.toJson(itemService.getItemById(id)
+                    .orElseThrow(() -> new NotFoundException("API: Item not found")));
                 
-            }, JsonUtil::toJson);
+            });
             
+            // POST /api/items/import (bulk catalog import, body is a JSON array of items)
+            if (adminToken != null) {
+                post("/import", (req, res) -> {
+                    if (!isAdmin(req.headers("X-Admin-Token"))) {
+                        throw new NotFoundException("API: Not Found");
+                    }
+                    // Streamed from the request body, never held in memory as a whole
+                    try (BufferedReader body = new BufferedReader(
+                            new InputStreamReader(req.raw().getInputStream(), StandardCharsets.UTF_8))) {
+                        return itemService.importItems(body);
+                    } catch (JsonParseException e) {
+                        res.status(400);
+                        return Map.of("error", e.getMessage());
+                    }
+                }, JsonUtil::toJson);
+            }
+
             /*
-             * The old routes (GET /api/items and GET /api/items/:id/description)
-             * have been removed because they are no longer used by our
-             * refactored frontend and the methods were deleted from ItemService.
+             * The old route GET /api/items/:id/description has been removed
+             * because it is no longer used by our refactored frontend.
              */
         });
     }
+
+    private boolean isAdmin(String token) {
+        return token != null && MessageDigest.isEqual(
+            adminToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.collectibles.item;
+
+import com.collectibles.money.Money;
+import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Queries of the items table.
+ * Rows are mapped by position with {@link ItemRowMapper}, so every query selects
+ * {@link #COLUMNS} in this order.
+ */
+@RegisterRowMapper(ItemRowMapper.class)
+interface ItemDao {
+
+    String COLUMNS = "id, name, description, price, imageUrl";
+
+    @SqlQuery("SELECT " + COLUMNS + " FROM items")
+    List<Item> findAll();
+
+    @SqlQuery("SELECT " + COLUMNS + " FROM items WHERE id = :id")
+    Optional<Item> findById(@Bind("id") String id);
+
+    @SqlQuery("SELECT COUNT(*) FROM items")
+    long count();
+
+    @SqlUpdate("UPDATE items SET price = :price WHERE id = :id")
+    int updatePrice(@Bind("id") String id, @Bind("price") Money price);
+}
@@ -0,0 +1,57 @@
+package com.collectibles.item;
+
+import com.collectibles.database.DatabaseService;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Admin command that bulk-imports item catalogs into the database configured
+ * by DB_URL / DB_USER / DB_PASSWORD, and reports the import rate.
+ *
+ * <pre>
+ *   mvn exec:java -Dexec.mainClass=com.collectibles.item.ItemImportCommand -Dexec.args="catalog.json"
+ * </pre>
+ *
+ * Each argument is a file holding a JSON array of items ("-" reads standard input).
+ * A running server lists the new items after a restart, or imports them itself
+ * through POST /api/items/import.
+ */
+public final class ItemImportCommand {
+
+    private ItemImportCommand() {}
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: ItemImportCommand <catalog.json|-> [more files...]");
+            System.exit(2);
+        }
+        DatabaseService dbService = new DatabaseService();
+        int status = 0;
+        try {
+            ItemImporter importer = new ItemImporter(dbService.getJdbi());
+            for (String file : args) {
+                try (Reader reader = open(file)) {
+                    System.out.println("[Import] " + file + ": " + importer.importItems(reader));
+                } catch (Exception e) {
+                    System.err.println("[Import] " + file + " failed: " + e);
+                    status = 1;
+                }
+            }
+        } finally {
+            dbService.close();
+        }
+        System.exit(status);
+    }
+
+    private static Reader open(String file) throws IOException {
+        if ("-".equals(file)) {
+            return new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        }
+        return Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8);
+    }
+}
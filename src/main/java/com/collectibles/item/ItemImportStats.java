@@ -0,0 +1,44 @@
+package com.collectibles.item;
+
+/**
+ * Outcome of a bulk item import, serialized as JSON by the import endpoint.
+ */
+public class ItemImportStats {
+
+    private final long read;
+    private final long inserted;
+    private final long skipped;
+    private final long invalid;
+    private final long transactions;
+    private final long elapsedMillis;
+    private final long rowsPerSecond;
+
+    public ItemImportStats(long read, long inserted, long skipped, long invalid, long transactions, long elapsedMillis) {
+        this.read = read;
+        this.inserted = inserted;
+        this.skipped = skipped;
+        this.invalid = invalid;
+        this.transactions = transactions;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = read * 1000 / Math.max(1, elapsedMillis);
+    }
+
+    /** Items parsed from the input. */
+    public long getRead() { return read; }
+    /** New items stored. */
+    public long getInserted() { return inserted; }
+    /** Items whose id already existed (left unchanged). */
+    public long getSkipped() { return skipped; }
+    /** Items without an id, name or price (not stored). */
+    public long getInvalid() { return invalid; }
+    public long getTransactions() { return transactions; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public long getRowsPerSecond() { return rowsPerSecond; }
+
+    @Override
+    public String toString() {
+        return read + " items read, " + inserted + " inserted, " + skipped + " already present, "
+            + invalid + " invalid, in " + elapsedMillis + " ms (" + rowsPerSecond + " rows/s, "
+            + transactions + " transactions)";
+    }
+}
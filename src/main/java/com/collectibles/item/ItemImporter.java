@@ -0,0 +1,134 @@
+package com.collectibles.item;
+
+import com.collectibles.utils.EnvConfig;
+import com.collectibles.utils.JsonUtil;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.PreparedBatch;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * Bulk loader for item catalogs (a JSON array of items, like items.json).
+ * The array is parsed one item at a time, so memory stays constant however
+ * large the catalog is, and rows are sent as JDBC batches (ITEM_IMPORT_BATCH_SIZE)
+ * committed every ITEM_IMPORT_TRANSACTION_ROWS rows: one round trip per batch
+ * instead of per row, and no transaction holding the whole file.
+ * Items whose id already exists are skipped, so a failed import can simply be rerun.
+ */
+public class ItemImporter {
+
+    private static final String INSERT_ITEM_SQL =
+        "INSERT INTO items (id, name, description, price, imageUrl) " +
+        "VALUES (:id, :name, :description, :price, :imageUrl) " +
+        "ON CONFLICT DO NOTHING";
+
+    private final Jdbi jdbi;
+    private final int batchSize;
+    private final int transactionRows;
+
+    /**
+     * Creates an importer with the batch settings from the environment.
+     */
+    public ItemImporter(Jdbi jdbi) {
+        this(jdbi,
+            EnvConfig.getInt("ITEM_IMPORT_BATCH_SIZE", 1000),
+            EnvConfig.getInt("ITEM_IMPORT_TRANSACTION_ROWS", 50000));
+    }
+
+    /**
+     * @param batchSize Rows sent to the database in one JDBC batch.
+     * @param transactionRows Rows committed together (rounded up to whole batches).
+     */
+    public ItemImporter(Jdbi jdbi, int batchSize, int transactionRows) {
+        this.jdbi = jdbi;
+        this.batchSize = Math.max(1, batchSize);
+        this.transactionRows = Math.max(this.batchSize, transactionRows);
+    }
+
+    /**
+     * Stores every item of the JSON array read from the given reader.
+     * Transactions committed before a failure are kept.
+     * @throws JsonParseException if the input is not a JSON array of items.
+     */
+    public ItemImportStats importItems(Reader reader) {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        long before = countItems();
+        try (JsonReader json = JsonUtil.newJsonReader(reader)) {
+            json.beginArray();
+            jdbi.useHandle(handle -> {
+                while (json.hasNext()) {
+                    handle.useTransaction(tx -> writeTransaction(tx, json, progress));
+                    progress.transactions++;
+                }
+            });
+            json.endArray();
+        } catch (MalformedJsonException | IllegalStateException e) {
+            throw new JsonSyntaxException("Invalid item catalog: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the item catalog", e);
+        }
+        // Skipped rows are not reported the same way by every driver, so count the table
+        long inserted = countItems() - before;
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new ItemImportStats(progress.read, inserted, progress.written - inserted,
+            progress.invalid, progress.transactions, elapsedMillis);
+    }
+
+    /**
+     * Writes up to {@code transactionRows} items, in batches, in the current transaction.
+     */
+    private void writeTransaction(Handle handle, JsonReader json, Progress progress) throws IOException {
+        int rows = 0;
+        PreparedBatch batch = handle.prepareBatch(INSERT_ITEM_SQL);
+        while (rows < transactionRows && json.hasNext()) {
+            Item item = readItem(json);
+            progress.read++;
+            if (!isValid(item)) {
+                progress.invalid++;
+                continue;
+            }
+            batch.bindBean(item).add();
+            rows++;
+            if (batch.size() >= batchSize) {
+                batch.execute();
+                batch = handle.prepareBatch(INSERT_ITEM_SQL);
+            }
+        }
+        if (batch.size() > 0) {
+            batch.execute();
+        }
+        progress.written += rows;
+    }
+
+    private static Item readItem(JsonReader json) {
+        String path = json.getPath();
+        try {
+            return JsonUtil.fromJson(json, Item.class);
+        } catch (JsonParseException e) {
+            throw new JsonSyntaxException("Invalid item at " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean isValid(Item item) {
+        return item != null && item.getId() != null && !item.getId().isEmpty()
+            && item.getName() != null && item.getPrice() != null;
+    }
+
+    private long countItems() {
+        return jdbi.onDemand(ItemDao.class).count();
+    }
+
+    private static final class Progress {
+        long read;
+        long written;
+        long invalid;
+        long transactions;
+    }
+}
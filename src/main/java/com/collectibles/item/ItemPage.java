@@ -0,0 +1,21 @@
+package com.collectibles.item;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated item listing.
+ * {@code nextCursor} is null on the last page.
+ */
+public class ItemPage {
+
+    private final List<Item> items;
+    private final String nextCursor;
+
+    public ItemPage(List<Item> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Item> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
@@ -0,0 +1,145 @@
+package com.collectibles.item;
+
+import com.collectibles.money.Money;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory index of all items ordered by price (then ID).
+ * Answers price range filters and keyset-paginated listings without the database.
+ * Writers are serialized; readers walk the skip list without locking.
+ */
+class ItemPriceIndex {
+
+    private static final Comparator<Key> ORDER = Comparator
+        .comparingLong((Key key) -> key.cents)
+        .thenComparing(key -> key.id);
+
+    private final ConcurrentSkipListMap<Key, Item> byPrice = new ConcurrentSkipListMap<>(ORDER);
+    private final Map<String, Key> keys = new ConcurrentHashMap<>();
+
+    /** Replaces the whole index (startup and after seeding). */
+    synchronized void load(Collection<Item> items) {
+        byPrice.clear();
+        keys.clear();
+        items.forEach(this::put);
+    }
+
+    /**
+     * Adds the items that are not indexed yet (after a bulk import);
+     * indexed items keep their live price.
+     * @return The added items.
+     */
+    synchronized List<Item> addMissing(Collection<Item> items) {
+        List<Item> added = new ArrayList<>();
+        for (Item item : items) {
+            if (!keys.containsKey(item.getId())) {
+                put(item);
+                added.add(item);
+            }
+        }
+        return added;
+    }
+
+    /** Adds or replaces an item. */
+    synchronized void put(Item item) {
+        Key key = new Key(item.getPrice().getCents(), item.getId());
+        Key old = keys.put(item.getId(), key);
+        byPrice.put(key, item);
+        if (old != null && ORDER.compare(old, key) != 0) {
+            byPrice.remove(old);
+        }
+    }
+
+    /** Moves an item to a new price. */
+    synchronized void updatePrice(String id, Money newPrice) {
+        Key key = keys.get(id);
+        if (key == null) {
+            return;
+        }
+        put(ItemCache.withPrice(byPrice.get(key), newPrice));
+    }
+
+    /**
+     * Returns up to {@code limit} items with min <= price <= max (in cents), cheapest first,
+     * starting after the given cursor.
+     * @param after Cursor returned with the previous page, or null for the first page.
+     */
+    ItemPage page(long min, long max, String after, int limit) {
+        Key from = new Key(min, "");
+        boolean inclusive = true;
+        Key cursor = decodeCursor(after);
+        if (cursor != null && ORDER.compare(cursor, from) >= 0) {
+            from = cursor;
+            inclusive = false;
+        }
+        NavigableMap<Key, Item> range = byPrice.tailMap(from, inclusive);
+
+        List<Item> items = new ArrayList<>(Math.min(limit, 64));
+        Key last = null;
+        for (Map.Entry<Key, Item> entry : range.entrySet()) {
+            if (entry.getKey().cents > max) {
+                return new ItemPage(items, null);
+            }
+            if (items.size() == limit) {
+                // There is at least one more item: hand out a cursor to it
+                return new ItemPage(items, encodeCursor(last));
+            }
+            items.add(entry.getValue());
+            last = entry.getKey();
+        }
+        return new ItemPage(items, null);
+    }
+
+    /**
+     * Canonical form of a cursor: the cursor of the last indexed item at or before it,
+     * which starts the same page. Null for unknown cursors and cursors before every item
+     * (both start from the first page).
+     */
+    String canonicalCursor(String after) {
+        Key cursor = decodeCursor(after);
+        Key floor = cursor != null ? byPrice.floorKey(cursor) : null;
+        return floor != null ? encodeCursor(floor) : null;
+    }
+
+    /** All items with min <= price <= max (in cents), cheapest first. */
+    List<Item> range(long min, long max) {
+        return page(min, max, null, Integer.MAX_VALUE).getItems();
+    }
+
+    private static String encodeCursor(Key key) {
+        String raw = key.cents + "|" + key.id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Key decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new Key(Long.parseLong(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            return null; // Unknown cursor: start from the first page
+        }
+    }
+
+    private static final class Key {
+        final long cents;
+        final String id;
+
+        Key(long cents, String id) {
+            this.cents = cents;
+            this.id = id;
+        }
+    }
+}
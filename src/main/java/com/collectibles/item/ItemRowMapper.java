@@ -0,0 +1,27 @@
+package com.collectibles.item;
+
+import com.collectibles.money.MoneyColumnMapper;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps a row of {@link ItemDao#COLUMNS} by position: no setter lookup by reflection
+ * and no column-name resolution per row.
+ */
+public class ItemRowMapper implements RowMapper<Item> {
+
+    private static final MoneyColumnMapper MONEY = new MoneyColumnMapper();
+
+    @Override
+    public Item map(ResultSet rs, StatementContext ctx) throws SQLException {
+        Item item = new Item();
+        item.setId(rs.getString(1));
+        item.setName(rs.getString(2));
+        item.setDescription(rs.getString(3));
+        item.setPrice(MONEY.map(rs, 4, ctx));
+        item.setImageUrl(rs.getString(5));
+        return item;
+    }
+}
@@ -1,64 +1,123 @@
 package com.collectibles.item;
 
-import com.collectibles.utils.JsonUtil;
-import com.google.gson.reflect.TypeToken;
+import com.collectibles.database.DatabaseRouter;
+import com.collectibles.metrics.LatencyHistogram;
+import com.collectibles.metrics.Metrics;
+import com.collectibles.money.Money;
+import com.collectibles.utils.EnvConfig;
+import com.collectibles.utils.ResourceVersions;
 import org.jdbi.v3.core.Jdbi;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Type;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * Service layer for Item logic.
  * Refactored to use a Jdbi database connection.
+ * Single-item lookups go through a bounded read-through cache
+ * (ITEM_CACHE_MAX_SIZE, ITEM_CACHE_TTL_SECONDS) and listings through an
+ * in-memory price index; both are kept current on writes.
  */
 public class ItemService {
 
+    // Database time per service method (db_query_duration_seconds)
+    private static final LatencyHistogram LOAD_ITEM_TIME = Metrics.dbTimer("ItemService.loadItem");
+    private static final LatencyHistogram LOAD_ALL_TIME = Metrics.dbTimer("ItemService.reloadPriceIndex");
+    private static final LatencyHistogram UPDATE_PRICE_TIME = Metrics.dbTimer("ItemService.updateItemPrice");
+
     private final Jdbi jdbi;
+    private final DatabaseRouter router;
+    private final DatabaseRouter.Routed<ItemDao> items;
+    private final ResourceVersions versions;
+    private final ItemCache cache = new ItemCache(
+        EnvConfig.getInt("ITEM_CACHE_MAX_SIZE", 10000),
+        EnvConfig.getLong("ITEM_CACHE_TTL_SECONDS", 300));
+    private final ItemPriceIndex priceIndex = new ItemPriceIndex();
+    // Highest bid price applied per item, guarded by "this"
+    private final Map<String, Money> committedBids = new HashMap<>();
+    private final int pageSize = EnvConfig.getInt("ITEMS_PAGE_SIZE", 24);
+    private final int maxPageSize = EnvConfig.getInt("ITEMS_PAGE_MAX", 100);
 
     /**
      * Constructs the service and seeds the database if empty.
      * @param jdbi The shared Jdbi instance.
      */
     public ItemService(Jdbi jdbi) {
-        this.jdbi = jdbi;
+        this(jdbi, new ResourceVersions());
+    }
+
+    /**
+     * @param versions Per-item versions (ETags), bumped whenever an item changes.
+     */
+    public ItemService(Jdbi jdbi, ResourceVersions versions) {
+        this(DatabaseRouter.primaryOnly(jdbi), versions);
+    }
+
+    /**
+     * @param router Single-item lookups may be served by the read replica;
+     *               seeding, the price index and price updates use the primary.
+     */
+    public ItemService(DatabaseRouter router, ResourceVersions versions) {
+        this.jdbi = router.write();
+        this.router = router;
+        this.items = router.onDemand(ItemDao.class);
+        this.versions = versions;
         seedDatabaseIfEmpty();
+        reloadPriceIndex();
     }
 
     /**
-     * Retrieves all items, supporting price filters.
+     * Retrieves all items, supporting price filters, cheapest first.
+     * Served from the in-memory price index.
      * @param minPriceStr Minimum price (e.g., "100")
      * @param maxPriceStr Maximum price (e.g., "500")
      * @return Filtered list of items
      */
     public List<Item> getAllItems(String minPriceStr, String maxPriceStr) {
-        double minPrice = parseDouble(minPriceStr, 0.0);
-        double maxPrice = parseDouble(maxPriceStr, Double.MAX_VALUE);
+        return priceIndex.range(parseCents(minPriceStr, 0L, RoundingMode.CEILING),
+            parseCents(maxPriceStr, Long.MAX_VALUE, RoundingMode.FLOOR));
+    }
 
-        return jdbi.withHandle(handle -> 
-            handle.createQuery(
-                "SELECT * FROM items WHERE price >= :min AND price <= :max ORDER BY name")
-                .bind("min", minPrice)
-                .bind("max", maxPrice)
-                .mapToBean(Item.class) // Maps columns to Item setters
-                .list()
-        );
+    /**
+     * Retrieves one page of items within a price range, cheapest first
+     * (keyset pagination over the in-memory price index).
+     * @param minPriceStr Minimum price (e.g., "100")
+     * @param maxPriceStr Maximum price (e.g., "500")
+     * @param after Cursor of the previous page (nextCursor), or null for the first page.
+     * @param limitStr Page size (defaults to ITEMS_PAGE_SIZE, capped at ITEMS_PAGE_MAX).
+     * @return The page and the cursor of the next one.
+     */
+    public ItemPage getItemsPage(String minPriceStr, String maxPriceStr, String after, String limitStr) {
+        int limit = parseInt(limitStr, pageSize);
+        limit = Math.max(1, Math.min(limit, maxPageSize));
+        return priceIndex.page(parseCents(minPriceStr, 0L, RoundingMode.CEILING),
+            parseCents(maxPriceStr, Long.MAX_VALUE, RoundingMode.FLOOR), after, limit);
     }
 
     /**
-     * Finds a single item by its ID.
+     * Canonical form of a page cursor (see {@link #getItemsPage}): cursors that start
+     * the same page are mapped to one value, and unknown ones to null (the first page).
+     * Used to key caches of rendered pages.
+     */
+    public String normalizeCursor(String after) {
+        return priceIndex.canonicalCursor(after);
+    }
+
+    /**
+     * Finds a single item by its ID (served from the cache when possible).
+     * The returned item is shared with other readers and must not be modified.
      * @param id The item ID.
      * @return An Optional<Item>
      */
     public Optional<Item> getItemById(String id) {
-        return jdbi.withHandle(handle -> 
-            handle.createQuery("SELECT * FROM items WHERE id = :id")
-                .bind("id", id)
-                .mapToBean(Item.class)
-                .findFirst()
-        );
+        return cache.get(id, this::loadItem);
     }
 
     /**
@@ -67,52 +126,121 @@ public class ItemService {
      * @param newPrice The new price.
      * @return true if successful, false if item not found.
      */
-    public boolean updateItemPrice(String itemId, double newPrice) {
-        int rowsUpdated = jdbi.withHandle(handle ->
-            handle.createUpdate("UPDATE items SET price = :price WHERE id = :id")
-                .bind("price", newPrice)
-                .bind("id", itemId)
-                .execute()
-        );
+    public boolean updateItemPrice(String itemId, Money newPrice) {
+        int rowsUpdated = UPDATE_PRICE_TIME.time(() -> items.write().updatePrice(itemId, newPrice));
+        router.markWritten(itemId);
+        cache.invalidate(itemId);
+        priceIndex.updatePrice(itemId, newPrice);
+        versions.bump(itemId);
         return rowsUpdated > 0;
     }
+
+    /**
+     * Brings the cached item and the price index up to date with a price
+     * already committed to the database by the bid pipeline (OfferService calls it
+     * after every accepted bid, see App).
+     * Bids only go up, so a bid applied late (after a higher one) is ignored.
+     * @param itemId The ID of the item.
+     * @param newPrice The committed price.
+     */
+    public synchronized void applyCommittedPrice(String itemId, Money newPrice) {
+        if (committedBids.merge(itemId, newPrice, Money::max) != newPrice) {
+            return; // A higher bid was already applied
+        }
+        cache.updatePrice(itemId, newPrice);
+        priceIndex.updatePrice(itemId, newPrice);
+        // Bumped again after the cache: a read between the offer commit and here got the old price
+        versions.bump(itemId);
+    }
+
+    /**
+     * Per-item versions used for conditional GETs of the item and its offers.
+     */
+    public ResourceVersions getVersions() {
+        return versions;
+    }
+
+    /**
+     * Returns the hit/miss/eviction counters of the item cache.
+     */
+    public ItemCacheStats getCacheStats() {
+        return cache.getStats();
+    }
+
+    /**
+     * Bulk-imports a JSON array of items (see {@link ItemImporter}); items whose id
+     * already exists are left unchanged. Listings include the new items afterwards.
+     */
+    public ItemImportStats importItems(Reader reader) {
+        ItemImportStats stats = new ItemImporter(jdbi).importItems(reader);
+        List<Item> stored = loadAllItems();
+        synchronized (this) {
+            for (Item item : priceIndex.addMissing(stored)) {
+                // A bid on a new item may have been applied while the items were read
+                Money committed = committedBids.get(item.getId());
+                if (committed != null && committed.isGreaterThan(item.getPrice())) {
+                    priceIndex.updatePrice(item.getId(), committed);
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Rebuilds the price index from the database.
+     */
+    private void reloadPriceIndex() {
+        priceIndex.load(loadAllItems());
+    }
+
+    private List<Item> loadAllItems() {
+        return LOAD_ALL_TIME.time(() -> items.write().findAll());
+    }
+
+    private Optional<Item> loadItem(String id) {
+        return LOAD_ITEM_TIME.time(() -> items.readFor(id).findById(id));
+    }
     
     /**
      * Helper to seed the database from items.json on first launch.
      */
     private void seedDatabaseIfEmpty() {
-        boolean isEmpty = jdbi.withHandle(handle -> 
-            handle.createQuery("SELECT COUNT(*) FROM items").mapTo(Integer.class).one()
-        ) == 0;
+        boolean isEmpty = items.write().count() == 0;
 
         if (isEmpty) {
             System.out.println("Database is empty. Seeding items from items.json...");
             try (InputStream is = getClass().getClassLoader().getResourceAsStream("items.json")) {
                 if (is == null) throw new RuntimeException("items.json not found");
                 
-                InputStreamReader reader = new InputStreamReader(is, StandardCharsets.UTF_8);
-                Type itemListType = new TypeToken<List<Item>>(){}.getType();
-                List<Item> items = JsonUtil.fromJson(reader, itemListType);
-
-                jdbi.useHandle(handle -> {
-                    for (Item item : items) {
-                        handle.createUpdate("INSERT INTO items (id, name, description, price, imageUrl) " +
-                                            "VALUES (:id, :name, :description, :price, :imageUrl)")
-                            .bindBean(item)
-                            .execute();
-                    }
-                });
-                System.out.println("Database seeded with " + items.size() + " items.");
+                // Streamed and batched, so a large catalog does not cost one round trip per item
+                ItemImportStats stats = new ItemImporter(jdbi)
+                    .importItems(new InputStreamReader(is, StandardCharsets.UTF_8));
+                cache.invalidateAll();
+                System.out.println("Database seeded with " + stats.getInserted() + " items.");
             } catch (Exception e) {
                 System.err.println("Failed to seed database: " + e.getMessage());
             }
         }
     }
     
-    private double parseDouble(String value, double defaultValue) {
+    /**
+     * Parses a price filter into cents, rounding so the filter never widens
+     * (minimums round up, maximums round down). Out-of-range values are ignored.
+     */
+    private long parseCents(String value, long defaultValue, RoundingMode rounding) {
+        if (value == null || value.isEmpty()) return defaultValue;
+        try {
+            BigDecimal cents = Money.parseDecimal(value).movePointRight(2).setScale(0, rounding);
+            return cents.max(BigDecimal.ZERO).min(BigDecimal.valueOf(Long.MAX_VALUE)).longValue();
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private int parseInt(String value, int defaultValue) {
         if (value == null || value.isEmpty()) return defaultValue;
         try {
-            return Double.parseDouble(value);
+            return Integer.parseInt(value);
         } catch (NumberFormatException e) {
             return defaultValue;
         }
@@ -0,0 +1,44 @@
+package com.collectibles.metrics;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Records every garbage collection reported by the JVM (collector, action and duration)
+ * as the jvm_gc_pause_seconds timer. Durations have millisecond resolution; for
+ * concurrent collectors they are the cycle time rather than a stop-the-world pause.
+ */
+public final class GcMetrics {
+
+    private static volatile boolean installed;
+
+    private GcMetrics() {}
+
+    /**
+     * Subscribes to the GC notifications of all collectors (once).
+     */
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(collector instanceof NotificationEmitter)) {
+                continue;
+            }
+            ((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                Metrics.timer("jvm_gc_pause_seconds", "Garbage collections reported by the JVM",
+                        "gc", info.getGcName(), "action", info.getGcAction())
+                    .record(info.getGcInfo().getDuration() * 1_000_000L);
+            }, null, null);
+        }
+    }
+}
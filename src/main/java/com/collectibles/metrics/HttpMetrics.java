@@ -0,0 +1,137 @@
+package com.collectibles.metrics;
+
+import spark.Request;
+import spark.Response;
+import spark.Spark;
+import spark.route.HttpMethod;
+import spark.routematch.RouteMatch;
+import spark.utils.SparkUtils;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static spark.Spark.afterAfter;
+import static spark.Spark.before;
+
+/**
+ * Per-route latency of the Spark routes, recorded by a before filter (start time)
+ * and an after-after filter (which also runs after exceptions and 404s).
+ * Requests are labelled with the route template they matched (e.g. /api/items/:id),
+ * not the raw path, and methods outside the routable ones are labelled "other",
+ * so the number of series stays bounded.
+ * The time covers the filters and the route until the body is handed to Jetty
+ * (streamed responses are written inside the route, so they are included).
+ */
+public final class HttpMetrics {
+
+    private static final String START_ATTRIBUTE = "metrics.startNanos";
+    private static final String UNMATCHED = "unmatched";
+    private static final String OTHER_METHOD = "other";
+    private static final Set<HttpMethod> ROUTE_METHODS = EnumSet.of(
+        HttpMethod.get, HttpMethod.post, HttpMethod.put, HttpMethod.patch, HttpMethod.delete,
+        HttpMethod.head, HttpMethod.options, HttpMethod.trace, HttpMethod.connect);
+
+    private final List<Template> templates = new ArrayList<>();
+    // "GET /api/items/:id" -> its histogram, "404" -> its counter
+    private final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    private HttpMetrics() {
+        for (RouteMatch route : Spark.routes()) {
+            if (ROUTE_METHODS.contains(route.getHttpMethod())) {
+                templates.add(new Template(route.getHttpMethod(), route.getMatchUri()));
+            }
+        }
+    }
+
+    /**
+     * Registers the timing filters. Call after all routes are registered:
+     * the route templates are read once, here.
+     */
+    public static void install() {
+        HttpMetrics metrics = new HttpMetrics();
+        before((req, res) -> req.attribute(START_ATTRIBUTE, System.nanoTime()));
+        afterAfter(metrics::record);
+    }
+
+    private void record(Request req, Response res) {
+        Long start = req.attribute(START_ATTRIBUTE);
+        if (start == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        String method = methodLabel(req.requestMethod());
+        String route = templateOf(method, req.pathInfo());
+        timers.computeIfAbsent(method + " " + route, key -> Metrics.timer("http_request_duration_seconds",
+                "Time spent handling HTTP requests, by route template", "method", method, "route", route))
+            .record(elapsed);
+        int status = res.raw().getStatus();
+        statuses.computeIfAbsent(status, key -> Metrics.counter("http_responses_total",
+                "HTTP responses by status code", "status", Integer.toString(status)))
+            .increment();
+    }
+
+    /** Upper-case name of a method routes can use, "other" for the rest: clients can send any token. */
+    private static String methodLabel(String method) {
+        HttpMethod httpMethod = HttpMethod.get(method.toLowerCase());
+        return ROUTE_METHODS.contains(httpMethod) ? httpMethod.name().toUpperCase() : OTHER_METHOD;
+    }
+
+    /** First registered route that matches, like Spark's own lookup (HEAD falls back to GET). */
+    private String templateOf(String method, String path) {
+        HttpMethod httpMethod = HttpMethod.get(method.toLowerCase());
+        for (int pass = 0; pass < 2; pass++) {
+            for (Template template : templates) {
+                if (template.method == httpMethod && template.matches(path)) {
+                    return template.path;
+                }
+            }
+            if (httpMethod != HttpMethod.head) {
+                break;
+            }
+            httpMethod = HttpMethod.get;
+        }
+        return UNMATCHED;
+    }
+
+    /** A route path split into segments; ":name" and "*" match any segment, a trailing "*" the rest. */
+    private static final class Template {
+        final HttpMethod method;
+        final String path;
+        final List<String> parts;
+
+        Template(HttpMethod method, String path) {
+            this.method = method;
+            this.path = path;
+            this.parts = SparkUtils.convertRouteToList(path);
+        }
+
+        boolean matches(String requestPath) {
+            boolean wildcardTail = path.endsWith("*");
+            if (!wildcardTail && requestPath.endsWith("/") != path.endsWith("/")) {
+                return false;
+            }
+            if (path.equals(requestPath)) {
+                return true;
+            }
+            List<String> requestParts = SparkUtils.convertRouteToList(requestPath);
+            if (requestParts.size() != parts.size() && !(wildcardTail && requestParts.size() > parts.size())) {
+                return false;
+            }
+            for (int i = 0; i < parts.size(); i++) {
+                String part = parts.get(i);
+                if (wildcardTail && i == parts.size() - 1 && part.equals("*")) {
+                    return true;
+                }
+                if (!part.startsWith(":") && !part.equals("*") && !part.equals(requestParts.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
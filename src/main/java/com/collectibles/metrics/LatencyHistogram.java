@@ -0,0 +1,173 @@
+package com.collectibles.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free histogram of durations in nanoseconds.
+ * Each power of two is split into log-linear sub-buckets (16 by default, so any
+ * reported percentile is within about 6% of the true value); recording is one
+ * array increment and never allocates or blocks.
+ */
+public final class LatencyHistogram {
+
+    private static final int DEFAULT_SUB_BUCKET_BITS = 4;
+
+    private final int subBucketBits;
+    private final AtomicLongArray counts;
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram() {
+        this(DEFAULT_SUB_BUCKET_BITS);
+    }
+
+    /**
+     * @param subBucketBits Precision: each power of two is split into 2^subBucketBits buckets,
+     *                      so percentiles are within 1/2^subBucketBits of the true value
+     *                      (e.g. 6 for about 1.6%, at 4x the memory of the default).
+     */
+    public LatencyHistogram(int subBucketBits) {
+        if (subBucketBits < 1 || subBucketBits > 10) {
+            throw new IllegalArgumentException("subBucketBits must be between 1 and 10: " + subBucketBits);
+        }
+        this.subBucketBits = subBucketBits;
+        this.counts = new AtomicLongArray(bucketCount(subBucketBits));
+    }
+
+    /** Records one duration in nanoseconds (negative values count as 0). */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value, subBucketBits));
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /** Records the time since {@code startNanos} (a {@link System#nanoTime()} reading). */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /** Runs the action and records how long it took, also when it throws. */
+    public <T> T time(Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            recordSince(start);
+        }
+    }
+
+    /** Runs the action and records how long it took, also when it throws. */
+    public void time(Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            recordSince(start);
+        }
+    }
+
+    /**
+     * A consistent copy of the counts, from which percentiles are computed
+     * without touching the live histogram again.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        long count = 0;
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, subBucketBits, count, sum.sum(), max.get());
+    }
+
+    /** Exact buckets below 2^subBucketBits, then 2^subBucketBits per power of two up to 2^63. */
+    static int bucketCount(int subBucketBits) {
+        int subBuckets = 1 << subBucketBits;
+        return subBuckets + (63 - subBucketBits + 1) * subBuckets;
+    }
+
+    static int bucketOf(long value, int subBucketBits) {
+        int subBuckets = 1 << subBucketBits;
+        if (value < subBuckets) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - subBucketBits;
+        int sub = (int) (value >>> shift) - subBuckets;
+        return subBuckets + shift * subBuckets + sub;
+    }
+
+    /** Largest value that falls into the bucket. */
+    static long upperBoundOf(int bucket, int subBucketBits) {
+        int subBuckets = 1 << subBucketBits;
+        if (bucket < subBuckets) {
+            return bucket;
+        }
+        int shift = (bucket - subBuckets) / subBuckets;
+        long sub = (bucket - subBuckets) % subBuckets;
+        long bound = ((subBuckets + sub + 1) << shift) - 1;
+        return bound < 0 ? Long.MAX_VALUE : bound; // Last bucket overflows
+    }
+
+    /**
+     * Point-in-time copy of a histogram.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final int subBucketBits;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, int subBucketBits, long count, long sum, long max) {
+            this.counts = counts;
+            this.subBucketBits = subBucketBits;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() { return count; }
+        public long getSumNanos() { return sum; }
+        public long getMaxNanos() { return max; }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        /**
+         * Value (bucket upper bound, capped at the max) that the quantile q of the samples do not exceed.
+         * @param q Quantile between 0 and 1, e.g. 0.999.
+         */
+        public long percentileNanos(double q) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(q * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBoundOf(i, subBucketBits), max);
+                }
+            }
+            return max;
+        }
+
+        /** Number of samples known to be at most {@code boundNanos} (for cumulative buckets). */
+        public long countAtMost(long boundNanos) {
+            long seen = 0;
+            for (int i = 0; i < counts.length && upperBoundOf(i, subBucketBits) <= boundNanos; i++) {
+                seen += counts[i];
+            }
+            return seen;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.collectibles.metrics;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Process-wide registry of timers (latency histograms), counters and gauges.
+ * Each metric has a name and optional label pairs ("route", "/api/items/:id");
+ * the same name and labels always return the same instance, so hot paths look
+ * their metric up once and keep it in a field.
+ * Read by the /api/metrics endpoint as JSON or in the Prometheus text format.
+ */
+public final class Metrics {
+
+    // Upper bounds (seconds) of the cumulative buckets exported to Prometheus
+    private static final double[] PROMETHEUS_BUCKETS = {
+        0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05,
+        0.1, 0.25, 0.5, 1, 2.5, 5, 10
+    };
+    private static final String[] PROMETHEUS_BUCKET_LABELS = Arrays.stream(PROMETHEUS_BUCKETS)
+        .mapToObj(bound -> BigDecimal.valueOf(bound).stripTrailingZeros().toPlainString())
+        .toArray(String[]::new);
+
+    private static final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    private Metrics() {}
+
+    /**
+     * Returns the latency histogram with this name and labels, creating it on first use.
+     * @param labels Alternating label names and values.
+     */
+    public static LatencyHistogram timer(String name, String help, String... labels) {
+        return (LatencyHistogram) family(name, help, Type.TIMER)
+            .series.computeIfAbsent(new Labels(labels), key -> new LatencyHistogram());
+    }
+
+    /**
+     * Timer of the database work done by one service method, e.g. "ItemService.loadItem".
+     */
+    public static LatencyHistogram dbTimer(String method) {
+        return timer("db_query_duration_seconds", "Database time per service method", "method", method);
+    }
+
+    /**
+     * Returns the counter with this name and labels, creating it on first use.
+     * @param labels Alternating label names and values.
+     */
+    public static LongAdder counter(String name, String help, String... labels) {
+        return (LongAdder) family(name, help, Type.COUNTER)
+            .series.computeIfAbsent(new Labels(labels), key -> new LongAdder());
+    }
+
+    /**
+     * Registers a value read when the metrics are scraped (replaces an earlier one with the same labels).
+     * @param labels Alternating label names and values.
+     */
+    public static void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.GAUGE).series.put(new Labels(labels), value);
+    }
+
+    /**
+     * Registers a monotonic total kept elsewhere (e.g. by a component's own stats),
+     * read when the metrics are scraped.
+     */
+    public static void counterFunction(String name, String help, DoubleSupplier total, String... labels) {
+        family(name, help, Type.COUNTER).series.put(new Labels(labels), total);
+    }
+
+    /**
+     * All metrics as nested maps (timers in milliseconds), for the JSON endpoint.
+     */
+    public static Map<String, Object> toMap() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (Family family : sortedFamilies()) {
+            List<Map<String, Object>> series = new ArrayList<>();
+            sortedSeries(family).forEach((labels, metric) -> {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("labels", labels.toMap());
+                if (metric instanceof LatencyHistogram) {
+                    LatencyHistogram.Snapshot snapshot = ((LatencyHistogram) metric).snapshot();
+                    entry.put("count", snapshot.getCount());
+                    entry.put("meanMillis", millis(snapshot.getMeanNanos()));
+                    entry.put("p50Millis", millis(snapshot.percentileNanos(0.50)));
+                    entry.put("p99Millis", millis(snapshot.percentileNanos(0.99)));
+                    entry.put("p999Millis", millis(snapshot.percentileNanos(0.999)));
+                    entry.put("maxMillis", millis(snapshot.getMaxNanos()));
+                } else {
+                    entry.put("value", valueOf(metric));
+                }
+                series.add(entry);
+            });
+            result.put(family.name, series);
+        }
+        return result;
+    }
+
+    /**
+     * All metrics in the Prometheus text exposition format (version 0.0.4).
+     * Timers are histograms in seconds; their cumulative buckets are derived from
+     * the log-linear ones, so a sample is counted in the first bound it surely fits under.
+     */
+    public static String toPrometheus() {
+        StringBuilder out = new StringBuilder(8192);
+        for (Family family : sortedFamilies()) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type.prometheusType).append('\n');
+            sortedSeries(family).forEach((labels, metric) -> {
+                if (metric instanceof LatencyHistogram) {
+                    appendHistogram(out, family.name, labels, ((LatencyHistogram) metric).snapshot());
+                } else {
+                    out.append(family.name).append(labels.render(null)).append(' ')
+                       .append(formatDouble(valueOf(metric))).append('\n');
+                }
+            });
+        }
+        return out.toString();
+    }
+
+    private static void appendHistogram(StringBuilder out, String name, Labels labels, LatencyHistogram.Snapshot snapshot) {
+        for (int i = 0; i < PROMETHEUS_BUCKETS.length; i++) {
+            out.append(name).append("_bucket").append(labels.render(PROMETHEUS_BUCKET_LABELS[i])).append(' ')
+               .append(snapshot.countAtMost((long) (PROMETHEUS_BUCKETS[i] * 1e9))).append('\n');
+        }
+        out.append(name).append("_bucket").append(labels.render("+Inf")).append(' ')
+           .append(snapshot.getCount()).append('\n');
+        out.append(name).append("_sum").append(labels.render(null)).append(' ')
+           .append(formatDouble(snapshot.getSumNanos() / 1e9)).append('\n');
+        out.append(name).append("_count").append(labels.render(null)).append(' ')
+           .append(snapshot.getCount()).append('\n');
+    }
+
+    private static Family family(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as " + family.type);
+        }
+        return family;
+    }
+
+    private static List<Family> sortedFamilies() {
+        List<Family> sorted = new ArrayList<>(families.values());
+        sorted.sort((a, b) -> a.name.compareTo(b.name));
+        return sorted;
+    }
+
+    private static Map<Labels, Object> sortedSeries(Family family) {
+        Map<Labels, Object> sorted = new TreeMap<>(Comparator.comparing((Labels labels) -> labels.render(null)));
+        sorted.putAll(family.series);
+        return sorted;
+    }
+
+    private static double valueOf(Object metric) {
+        if (metric instanceof LongAdder) {
+            return ((LongAdder) metric).sum();
+        }
+        return ((DoubleSupplier) metric).getAsDouble();
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0; // Microsecond precision
+    }
+
+    private static String formatDouble(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private enum Type {
+        TIMER("histogram"), COUNTER("counter"), GAUGE("gauge");
+
+        final String prometheusType;
+
+        Type(String prometheusType) {
+            this.prometheusType = prometheusType;
+        }
+    }
+
+    private static final class Family {
+        final String name;
+        final String help;
+        final Type type;
+        // Labels -> LatencyHistogram, LongAdder or DoubleSupplier
+        final ConcurrentMap<Labels, Object> series = new ConcurrentHashMap<>();
+
+        Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    /** Label name/value pairs of one series. */
+    private static final class Labels {
+        private final String[] pairs;
+
+        Labels(String[] pairs) {
+            if (pairs.length % 2 != 0) {
+                throw new IllegalArgumentException("Labels must be name/value pairs: " + Arrays.toString(pairs));
+            }
+            this.pairs = pairs.clone();
+        }
+
+        Map<String, String> toMap() {
+            Map<String, String> map = new LinkedHashMap<>();
+            for (int i = 0; i < pairs.length; i += 2) {
+                map.put(pairs[i], pairs[i + 1]);
+            }
+            return map;
+        }
+
+        /** {name="value",...}, with an extra le label for histogram buckets. */
+        String render(String le) {
+            if (pairs.length == 0 && le == null) {
+                return "";
+            }
+            StringBuilder out = new StringBuilder("{");
+            for (int i = 0; i < pairs.length; i += 2) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(pairs[i]).append("=\"").append(escape(pairs[i + 1])).append('"');
+            }
+            if (le != null) {
+                out.append(pairs.length > 0 ? "," : "").append("le=\"").append(le).append('"');
+            }
+            return out.append('}').toString();
+        }
+
+        private static String escape(String value) {
+            return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Labels && Arrays.equals(pairs, ((Labels) other).pairs);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(pairs);
+        }
+    }
+}
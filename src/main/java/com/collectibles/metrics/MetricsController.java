@@ -0,0 +1,24 @@
+package com.collectibles.metrics;
+
+import static spark.Spark.*;
+
+import com.collectibles.utils.JsonUtil;
+
+/**
+ * Exposes the process metrics (request latency per route, DB time per service method,
+ * WebSocket fan-out, GC, pool and session gauges).
+ */
+public class MetricsController {
+
+    public void registerRoutes() {
+
+        // GET /api/metrics (all metrics as JSON, latencies in milliseconds)
+        get("/metrics", (req, res) -> Metrics.toMap(), JsonUtil::toJson);
+
+        // GET /api/metrics/prometheus (Prometheus text format, latencies as histograms in seconds)
+        get("/metrics/prometheus", (req, res) -> {
+            res.type("text/plain; version=0.0.4; charset=utf-8");
+            return Metrics.toPrometheus();
+        });
+    }
+}
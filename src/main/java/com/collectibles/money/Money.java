@@ -0,0 +1,152 @@
+package com.collectibles.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of US dollars as a whole number of cents.
+ * Immutable, compared exactly (no floating-point rounding), and stored in
+ * NUMERIC columns through {@link MoneyColumnMapper} / {@link MoneyArgumentFactory}.
+ * Its text forms are computed once per instance and then reused.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    // Longest decimal text accepted from users
+    private static final int MAX_INPUT_LENGTH = 40;
+    // Digits before the point of the largest amount (Long.MAX_VALUE cents has 17)
+    private static final int MAX_WHOLE_DIGITS = 17;
+
+    private final long cents;
+    // Lazily computed, racy but idempotent (like String.hashCode)
+    private String plain;
+    private String formatted;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Converts a decimal amount, rounding half-up to whole cents
+     * (used for values read from the database).
+     */
+    public static Money of(BigDecimal amount) {
+        return ofCents(amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact());
+    }
+
+    /**
+     * Parses user input such as "120", "120.5" or "120.50".
+     * @throws NumberFormatException if it is not a number or has more than two decimals.
+     */
+    public static Money parse(String value) {
+        if (value == null) {
+            throw new NumberFormatException("Missing amount");
+        }
+        try {
+            return ofCents(parseDecimal(value).setScale(2, RoundingMode.UNNECESSARY)
+                .movePointRight(2).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount must be in whole cents: " + value);
+        }
+    }
+
+    /**
+     * Parses user input as a decimal number in the range of amounts, without scaling it.
+     * Input like "1e100000000" is rejected here: scaling it would build a huge number.
+     * @throws NumberFormatException if it is not a number, or too long, too large or too precise.
+     */
+    public static BigDecimal parseDecimal(String value) {
+        String text = value.trim();
+        if (text.length() > MAX_INPUT_LENGTH) {
+            throw new NumberFormatException("Amount is too long");
+        }
+        BigDecimal amount = new BigDecimal(text);
+        // Checked on the exponent only (cheap): at most 17 whole digits, 40 decimals
+        if (amount.scale() < -MAX_WHOLE_DIGITS || amount.scale() > MAX_INPUT_LENGTH
+                || amount.precision() - amount.scale() > MAX_WHOLE_DIGITS) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+        return amount;
+    }
+
+    public long getCents() { return cents; }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return cents > other.cents;
+    }
+
+    /** The larger of the two amounts (the first one when they are equal). */
+    public static Money max(Money a, Money b) {
+        return b.cents > a.cents ? b : a;
+    }
+
+    /**
+     * Plain decimal form with two decimals, e.g. "1234.50".
+     */
+    @Override
+    public String toString() {
+        String result = plain;
+        if (result == null) {
+            result = plain = appendDigits(new StringBuilder(24), false).toString();
+        }
+        return result;
+    }
+
+    /**
+     * US currency form, e.g. "$1,234.50" (same output as NumberFormat.getCurrencyInstance(Locale.US)).
+     */
+    public String format() {
+        String result = formatted;
+        if (result == null) {
+            StringBuilder text = new StringBuilder(24);
+            if (cents < 0) {
+                text.append('-');
+            }
+            result = formatted = appendDigits(text.append('$'), true).toString();
+        }
+        return result;
+    }
+
+    private StringBuilder appendDigits(StringBuilder text, boolean grouping) {
+        if (cents < 0 && !grouping) {
+            text.append('-');
+        }
+        // Long.MIN_VALUE has no positive counterpart, so work on the unsigned value
+        String digits = Long.toUnsignedString(cents < 0 ? -cents : cents);
+        if (digits.length() < 3) {
+            digits = "00".substring(digits.length() - 1) + digits;
+        }
+        int wholeLength = digits.length() - 2;
+        for (int i = 0; i < wholeLength; i++) {
+            if (grouping && i > 0 && (wholeLength - i) % 3 == 0) {
+                text.append(',');
+            }
+            text.append(digits.charAt(i));
+        }
+        return text.append('.').append(digits, wholeLength, digits.length());
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money && ((Money) other).cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+}
@@ -0,0 +1,22 @@
+package com.collectibles.money;
+
+import org.jdbi.v3.core.argument.AbstractArgumentFactory;
+import org.jdbi.v3.core.argument.Argument;
+import org.jdbi.v3.core.config.ConfigRegistry;
+
+import java.sql.Types;
+
+/**
+ * Binds {@link Money} parameters as exact NUMERIC values.
+ */
+public class MoneyArgumentFactory extends AbstractArgumentFactory<Money> {
+
+    public MoneyArgumentFactory() {
+        super(Types.NUMERIC);
+    }
+
+    @Override
+    protected Argument build(Money value, ConfigRegistry config) {
+        return (position, statement, ctx) -> statement.setBigDecimal(position, value.toBigDecimal());
+    }
+}
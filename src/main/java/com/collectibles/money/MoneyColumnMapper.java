@@ -0,0 +1,20 @@
+package com.collectibles.money;
+
+import org.jdbi.v3.core.mapper.ColumnMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads NUMERIC columns (price, amount) as {@link Money}; SQL NULL maps to null.
+ */
+public class MoneyColumnMapper implements ColumnMapper<Money> {
+
+    @Override
+    public Money map(ResultSet r, int columnNumber, StatementContext ctx) throws SQLException {
+        BigDecimal value = r.getBigDecimal(columnNumber);
+        return value == null ? null : Money.of(value);
+    }
+}
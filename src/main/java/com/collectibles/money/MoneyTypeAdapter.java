@@ -0,0 +1,39 @@
+package com.collectibles.money;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link Money} as a JSON number with two decimals (e.g. 120.50)
+ * and reads it back from a number or a numeric string.
+ */
+public class MoneyTypeAdapter extends TypeAdapter<Money> {
+
+    @Override
+    public void write(JsonWriter out, Money value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.jsonValue(value.toString()); // Cached text, no BigDecimal per write
+        }
+    }
+
+    @Override
+    public Money read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String path = in.getPath();
+        try {
+            return Money.parse(in.nextString());
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e.getMessage() + " at path " + path, e);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.collectibles.offer;
+
+import com.collectibles.metrics.LatencyHistogram;
+import com.collectibles.metrics.Metrics;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.PreparedBatch;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit pipeline for accepted bids.
+ * Concurrent requests hand their offer to a single writer thread, which collects
+ * them into micro-batches (bounded by size and by a short wait) and stores each
+ * batch with one JDBC batch per statement inside one transaction, so many bids
+ * share a single commit (and fsync). Each caller is released once its batch is durable.
+ *
+ * The database has the final word on every bid: a single guarded UPDATE raises
+ * the item's high bid (and price) only if the bid beats it, and only the bids that
+ * won are inserted. Under READ COMMITTED the guard is re-checked on the locked row,
+ * so two servers bidding on the same item can never both win with the same amount.
+ */
+class BidWritePipeline {
+
+    private static final String INSERT_OFFER_SQL =
+        "INSERT INTO offers (item_id, name, email, amount) " +
+        "VALUES (:item_id, :name, :email, :amount)";
+
+    // Accepts the bid (one row updated) only if it beats the item's current high bid
+    private static final String RAISE_BID_SQL =
+        "UPDATE items SET high_bid = :amount, price = :amount " +
+        "WHERE id = :id AND (high_bid IS NULL OR high_bid < :amount)";
+
+    // Lower bids of an item run first, so each one is checked against the previous
+    private static final Comparator<PendingBid> BID_ORDER =
+        Comparator.comparingLong(bid -> bid.offer.getAmount().getCents());
+
+    // Time to store one batch (offers and prices in one transaction)
+    private static final LatencyHistogram WRITE_BATCH_TIME = Metrics.dbTimer("OfferService.writeBatch");
+
+    private final Jdbi jdbi;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingBid> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    /**
+     * @param maxBatchSize Maximum number of bids committed together.
+     * @param maxWaitMillis How long the writer waits for more bids before committing a partial batch.
+     * @param queueCapacity Maximum number of bids waiting to be written (callers block when full).
+     */
+    BidWritePipeline(Jdbi jdbi, int maxBatchSize, long maxWaitMillis, int queueCapacity) {
+        this.jdbi = jdbi;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMillis));
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::run, "bid-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues an offer and waits until its batch has been committed.
+     * @return true if the offer was stored (and became the item's price and high bid),
+     *         false if the database already had an equal or higher bid.
+     */
+    boolean write(Offer offer) {
+        PendingBid bid = new PendingBid(offer);
+        try {
+            queue.put(bid);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queuing the offer", e);
+        }
+        try {
+            return bid.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stops the writer thread once the bids already queued are written.
+     */
+    void close() {
+        running = false;
+        writer.interrupt();
+    }
+
+    private void run() {
+        List<PendingBid> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                batch.add(queue.take());
+                collectMore(batch);
+            } catch (InterruptedException e) {
+                // close() was called: drain whatever is left and exit
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds queued bids to the batch until it is full or the wait budget runs out.
+     */
+    private void collectMore(List<PendingBid> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (batch.size() < maxBatchSize) {
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingBid next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingBid> batch) {
+        try {
+            Set<PendingBid> accepted = writeBatch(batch);
+            for (PendingBid bid : batch) {
+                bid.result.complete(accepted.contains(bid));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            // One bad bid (e.g. unknown item) must not fail the others: retry them one by one
+            for (PendingBid bid : batch) {
+                commit(List.of(bid));
+            }
+        }
+    }
+
+    /**
+     * Raises the high bid of each item, then inserts the offers that raised it,
+     * in a single transaction.
+     * @return The bids that were accepted.
+     */
+    private Set<PendingBid> writeBatch(List<PendingBid> batch) {
+        List<PendingBid> ordered = new ArrayList<>(batch);
+        ordered.sort(BID_ORDER);
+
+        return WRITE_BATCH_TIME.time(() -> jdbi.inTransaction(handle -> {
+            PreparedBatch raises = handle.prepareBatch(RAISE_BID_SQL);
+            for (PendingBid bid : ordered) {
+                raises.bind("amount", bid.offer.getAmount())
+                      .bind("id", bid.offer.getItem_id())
+                      .add();
+            }
+            int[] rows = raises.execute();
+            List<PendingBid> winners = new ArrayList<>(ordered.size());
+            for (int i = 0; i < ordered.size(); i++) {
+                if (rows[i] > 0) {
+                    winners.add(ordered.get(i));
+                }
+            }
+            if (winners.isEmpty()) {
+                return Set.of();
+            }
+
+            PreparedBatch offers = handle.prepareBatch(INSERT_OFFER_SQL);
+            for (PendingBid bid : winners) {
+                offers.bindBean(bid.offer).add();
+            }
+            // Fill in the generated id and timestamp, needed by the live offer stream
+            List<Offer> keys = offers.executePreparedBatch("offer_id", "created_at")
+                .map((rs, ctx) -> {
+                    Offer stored = new Offer();
+                    stored.setOffer_id(rs.getInt("offer_id"));
+                    stored.setCreated_at(rs.getTimestamp("created_at"));
+                    return stored;
+                })
+                .list();
+            for (int i = 0; i < keys.size(); i++) {
+                winners.get(i).offer.setOffer_id(keys.get(i).getOffer_id());
+                winners.get(i).offer.setCreated_at(keys.get(i).getCreated_at());
+            }
+            return new HashSet<>(winners);
+        }));
+    }
+
+    private static final class PendingBid {
+        final Offer offer;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        PendingBid(Offer offer) {
+            this.offer = offer;
+        }
+    }
+}
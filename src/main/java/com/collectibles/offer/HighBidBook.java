@@ -0,0 +1,118 @@
+package com.collectibles.offer;
+
+import com.collectibles.exception.NotFoundException;
+import com.collectibles.money.Money;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-memory book of the current highest bid per item.
+ * Entries are loaded lazily from the database the first time an item is bid on,
+ * and afterwards a new bid is checked and applied with a single CAS,
+ * so low bids are rejected without touching PostgreSQL.
+ * Entries are never dropped and reloaded while bids are in flight: they are only
+ * corrected in place with compare-and-set, and only real items get one.
+ */
+class HighBidBook {
+
+    /** Marker for "this item has no bids yet": any amount beats it. */
+    static final long NO_BIDS = Long.MIN_VALUE;
+
+    // Each value holds the high bid in cents, compared exactly and updated with compareAndSet
+    private final Map<String, AtomicLong> highBids = new ConcurrentHashMap<>();
+    private final ToLongFunction<String> loader;
+
+    /**
+     * @param loader Reads the current highest bid of an item from the database, in cents
+     *               (or {@link #NO_BIDS} when there are none); throws
+     *               {@link NotFoundException} if the item does not exist.
+     */
+    HighBidBook(ToLongFunction<String> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Returns the current highest bid (loading it on first use), or null if there are none.
+     * @throws NotFoundException if the item does not exist.
+     */
+    Money getHighBid(String itemId) {
+        long cents = entry(itemId).get();
+        return cents == NO_BIDS ? null : Money.ofCents(cents);
+    }
+
+    /**
+     * Raises the high bid to the given amount if it beats the current one.
+     * @return true if the bid was accepted, false if it was too low.
+     * @throws NotFoundException if the item does not exist.
+     */
+    boolean tryRaise(String itemId, Money amount) {
+        AtomicLong highBid = entry(itemId);
+        long cents = amount.getCents();
+        while (true) {
+            long current = highBid.get();
+            if (cents <= current) {
+                return false;
+            }
+            if (highBid.compareAndSet(current, cents)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Undoes a raise whose bid could not be persisted: the entry goes back to the
+     * database's value, but only if no later bid has raised it since (that bid is
+     * still in flight and will be committed or rolled back on its own).
+     */
+    void rollBack(String itemId, Money amount) {
+        AtomicLong highBid = highBids.get(itemId);
+        if (highBid == null) {
+            return;
+        }
+        long cents = amount.getCents();
+        try {
+            highBid.compareAndSet(cents, loader.applyAsLong(itemId));
+        } catch (RuntimeException e) {
+            // Database unreachable: reload on next use rather than keep a bid that was never stored
+            if (highBid.get() == cents) {
+                highBids.remove(itemId, highBid);
+            }
+        }
+    }
+
+    /**
+     * Brings the entry up to the database's high bid, after the database rejected a bid
+     * the book had accepted (e.g. a higher bid was placed through another server).
+     * Only ever raises the entry, so bids in flight are not undercut.
+     * @return The database's high bid, or null if there are none.
+     * @throws NotFoundException if the item no longer exists (its entry is dropped).
+     */
+    Money refresh(String itemId) {
+        long stored;
+        try {
+            stored = loader.applyAsLong(itemId);
+        } catch (NotFoundException e) {
+            highBids.remove(itemId);
+            throw e;
+        }
+        AtomicLong highBid = highBids.get(itemId);
+        if (highBid != null) {
+            highBid.accumulateAndGet(stored, Math::max);
+        }
+        return stored == NO_BIDS ? null : Money.ofCents(stored);
+    }
+
+    private AtomicLong entry(String itemId) {
+        AtomicLong highBid = highBids.get(itemId);
+        if (highBid != null) {
+            return highBid;
+        }
+        // Load outside of the map so a slow query doesn't block other items;
+        // an unknown item throws here, so it never gets an entry
+        AtomicLong loaded = new AtomicLong(loader.applyAsLong(itemId));
+        highBid = highBids.putIfAbsent(itemId, loaded);
+        return highBid != null ? highBid : loaded;
+    }
+}
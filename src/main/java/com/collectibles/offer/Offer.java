@@ -1,8 +1,7 @@
 package com.collectibles.offer;
 
+import com.collectibles.money.Money;
 import java.sql.Timestamp;
-import java.text.NumberFormat;
-import java.util.Locale;
 
 /**
  * Model (POJO) for an Offer.
@@ -14,14 +13,14 @@ public class Offer {
     private String item_id;
     private String name;
     private String email;
-    private double amount;
+    private Money amount;
     private Timestamp created_at;
 
     /** No-arg constructor required by Jdbi */
     public Offer() {}
     
     /** Constructor for creating new offers */
-    public Offer(String name, String email, String itemId, double amount) {
+    public Offer(String name, String email, String itemId, Money amount) {
         this.name = name;
         this.email = email;
         this.item_id = itemId;
@@ -29,12 +28,11 @@ public class Offer {
     }
 
     /**
-     * Formats the 'amount' double into a proper currency String for Mustache.
-     * (e.g., 501.0 -> $501.00)
+     * Formats the 'amount' into a proper currency String for Mustache.
+     * (e.g., 501 -> $501.00; computed once per amount)
      */
     public String getFormattedAmount() {
-        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(Locale.US);
-        return currencyFormat.format(this.amount);
+        return amount != null ? amount.format() : null;
     }
 
     // Getters
@@ -42,7 +40,7 @@ public class Offer {
     public String getItem_id() { return item_id; }
     public String getName() { return name; }
     public String getEmail() { return email; }
-    public double getAmount() { return amount; }
+    public Money getAmount() { return amount; }
     public Timestamp getCreated_at() { return created_at; }
     
     // Setters
@@ -50,6 +48,6 @@ public class Offer {
     public void setItem_id(String item_id) { this.item_id = item_id; }
     public void setName(String name) { this.name = name; }
     public void setEmail(String email) { this.email = email; }
-    public void setAmount(double amount) { this.amount = amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
     public void setCreated_at(Timestamp created_at) { this.created_at = created_at; }
 }
\ No newline at end of file
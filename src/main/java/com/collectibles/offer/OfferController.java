@@ -1,7 +1,8 @@
 package com.collectibles.offer;
 
+import com.collectibles.utils.JsonStreaming;
 import com.collectibles.utils.JsonUtil;
-import java.util.List;
+import spark.Route;
 import static spark.Spark.*;
 
 /**
@@ -11,9 +12,17 @@ import static spark.Spark.*;
 public class OfferController {
 
     private final OfferService offerService;
+    private final Route streamOffers;
 
     public OfferController(OfferService offerService) {
         this.offerService = offerService;
+        // Streams the offers of an item row by row from a database cursor to the response
+        this.streamOffers = JsonStreaming.stream((req, res, json) -> {
+            String itemId = req.params(":itemId");
+            json.beginArray();
+            offerService.forEachOfferByItemId(itemId, offer -> JsonUtil.toJson(offer, json));
+            json.endArray();
+        });
     }
 
     /**
@@ -28,14 +37,38 @@ public class OfferController {
             /**
              * GET /api/offers/:itemId
              * Retrieves all offers for a specific item.
+             * Streamed row by row from a database cursor to the response.
              */
             get("/:itemId", (req, res) -> {
+                // 304 if the client's copy is current: no query, no serialization
                 String itemId = req.params(":itemId");
-                List<Offer> offers = offerService.getOffersByItemId(itemId);
-                return offers;
-            }, JsonUtil::toJson); // Convert list to JSON
+                if (offerService.getVersions().notModified(req, res, itemId,
+                        () -> offerService.itemExists(itemId))) {
+                    return "";
+                }
+                return streamOffers.handle(req, res);
+            });
+
+            /**
+             * GET /api/offers/:itemId/top?limit=10
+             * Retrieves the highest offers of an item from the in-memory ranking.
+             */
+            get("/:itemId/top", (req, res) -> {
+                String itemId = req.params(":itemId");
+                int limit = parseLimit(req.queryParams("limit"), 10);
+                return offerService.getTopOffersByItemId(itemId, limit);
+            }, JsonUtil::toJson);
             
             // We could add POST/PUT/DELETE here later if needed
         });
     }
+
+    private int parseLimit(String value, int defaultValue) {
+        if (value == null || value.isEmpty()) return defaultValue;
+        try {
+            return Math.max(1, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.collectibles.offer;
+
+import com.collectibles.money.Money;
+import org.jdbi.v3.sqlobject.config.RegisterRowMapper;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Read queries of the offers (and the item columns the offer logic needs).
+ * Rows are mapped by position with {@link OfferRowMapper}, so every offer query
+ * selects {@link #COLUMNS} in this order.
+ */
+@RegisterRowMapper(OfferRowMapper.class)
+interface OfferDao {
+
+    String COLUMNS = "offer_id, item_id, name, email, amount, created_at";
+
+    @SqlQuery("SELECT " + COLUMNS + " FROM offers WHERE item_id = :itemId ORDER BY amount DESC")
+    List<Offer> findByItemId(@Bind("itemId") String itemId);
+
+    /** Same rows as {@link #findByItemId}, read lazily; only valid on an attached handle. */
+    @SqlQuery("SELECT " + COLUMNS + " FROM offers WHERE item_id = :itemId ORDER BY amount DESC")
+    Stream<Offer> streamByItemId(@Bind("itemId") String itemId);
+
+    @SqlQuery("SELECT " + COLUMNS + " FROM offers WHERE item_id = :itemId ORDER BY amount DESC LIMIT :limit")
+    List<Offer> findTopByItemId(@Bind("itemId") String itemId, @Bind("limit") int limit);
+
+    @SqlQuery("SELECT " + COLUMNS + " FROM offers ORDER BY amount DESC LIMIT :limit")
+    List<Offer> findTop(@Bind("limit") int limit);
+
+    /** Empty if the item does not exist or has no bids yet. */
+    @SqlQuery("SELECT high_bid FROM items WHERE id = :itemId")
+    Optional<Money> findHighBid(@Bind("itemId") String itemId);
+
+    @SqlQuery("SELECT name FROM items WHERE id = :id")
+    Optional<String> findItemName(@Bind("id") String id);
+}
@@ -0,0 +1,80 @@
+package com.collectibles.offer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * In-memory ranking of the highest offers, overall and per item.
+ * The overall top N is seeded from the database once at startup; the per-item
+ * views are seeded the first time an item is read. Afterwards every accepted
+ * offer updates both in O(log N), so rankings are served without SQL.
+ */
+class OfferRanking {
+
+    private final TopOffers overall;
+    private final int itemSize;
+    private final Map<String, ItemTop> perItem = new ConcurrentHashMap<>();
+    private final BiFunction<String, Integer, List<Offer>> itemLoader;
+
+    /**
+     * @param seed The current top offers overall (highest first).
+     * @param itemLoader Reads an item's highest offers from the database (item ID, limit).
+     */
+    OfferRanking(int size, int itemSize, List<Offer> seed, BiFunction<String, Integer, List<Offer>> itemLoader) {
+        this.overall = new TopOffers(size);
+        this.overall.addAll(seed);
+        this.itemSize = Math.max(1, itemSize);
+        this.itemLoader = itemLoader;
+    }
+
+    int getSize() { return overall.getCapacity(); }
+
+    int getItemSize() { return itemSize; }
+
+    /**
+     * Records an offer that was just stored.
+     */
+    void record(Offer offer) {
+        overall.add(offer);
+        // An item not read yet still records the offer; its view is merged with the database on first read
+        perItem.computeIfAbsent(offer.getItem_id(), id -> new ItemTop(itemSize)).offers.add(offer);
+    }
+
+    /** The highest offers overall, highest first. */
+    List<Offer> top(int limit) {
+        return overall.top(limit);
+    }
+
+    /** The highest offers of one item, highest first ({@code limit} is capped at the item size). */
+    List<Offer> topForItem(String itemId, int limit) {
+        ItemTop itemTop = perItem.get(itemId);
+        if (itemTop == null) {
+            List<Offer> seed = itemLoader.apply(itemId, itemSize);
+            if (seed.isEmpty()) {
+                return seed; // Not kept, so unknown item IDs do not grow the map
+            }
+            itemTop = perItem.computeIfAbsent(itemId, id -> new ItemTop(itemSize));
+            itemTop.seed(seed);
+        } else if (!itemTop.seeded) {
+            itemTop.seed(itemLoader.apply(itemId, itemSize));
+        }
+        return itemTop.offers.top(limit);
+    }
+
+    private static final class ItemTop {
+        final TopOffers offers;
+        volatile boolean seeded;
+
+        ItemTop(int size) {
+            this.offers = new TopOffers(size);
+        }
+
+        /** Merges the stored offers in; an offer present in both is kept once. */
+        void seed(List<Offer> stored) {
+            offers.addAll(stored);
+            seeded = true;
+        }
+    }
+}
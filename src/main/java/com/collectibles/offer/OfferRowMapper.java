@@ -0,0 +1,28 @@
+package com.collectibles.offer;
+
+import com.collectibles.money.MoneyColumnMapper;
+import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.statement.StatementContext;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps a row of {@link OfferDao#COLUMNS} by position: no setter lookup by reflection
+ * and no column-name resolution per row.
+ */
+public class OfferRowMapper implements RowMapper<Offer> {
+
+    private static final MoneyColumnMapper MONEY = new MoneyColumnMapper();
+
+    @Override
+    public Offer map(ResultSet rs, StatementContext ctx) throws SQLException {
+        Offer offer = new Offer();
+        offer.setOffer_id(rs.getInt(1));
+        offer.setItem_id(rs.getString(2));
+        offer.setName(rs.getString(3));
+        offer.setEmail(rs.getString(4));
+        offer.setAmount(MONEY.map(rs, 5, ctx));
+        offer.setCreated_at(rs.getTimestamp(6));
+        return offer;
+    }
+}
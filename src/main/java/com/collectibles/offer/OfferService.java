@@ -1,10 +1,22 @@
 package com.collectibles.offer;
 
+import com.collectibles.database.DatabaseRouter;
 import com.collectibles.exception.InvalidOfferException;
+import com.collectibles.exception.NotFoundException;
+import com.collectibles.metrics.LatencyHistogram;
+import com.collectibles.metrics.Metrics;
+import com.collectibles.money.Money;
+import com.collectibles.utils.EnvConfig;
+import com.collectibles.utils.ResourceVersions;
 import org.jdbi.v3.core.Jdbi;
-import org.jdbi.v3.core.statement.StatementException;
+import org.jdbi.v3.core.statement.StatementCustomizers;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Service layer for managing Offers.
@@ -12,10 +24,76 @@ import java.util.Optional;
  */
 public class OfferService {
 
-    private final Jdbi jdbi;
+    // Database time per service method (db_query_duration_seconds)
+    private static final LatencyHistogram OFFERS_BY_ITEM_TIME = Metrics.dbTimer("OfferService.getOffersByItemId");
+    // Includes the time the action takes per row, since rows are read while it runs
+    private static final LatencyHistogram STREAM_OFFERS_TIME = Metrics.dbTimer("OfferService.forEachOfferByItemId");
+    private static final LatencyHistogram TOP_OFFERS_BY_ITEM_TIME = Metrics.dbTimer("OfferService.loadTopOffersByItemId");
+    private static final LatencyHistogram HIGH_BID_TIME = Metrics.dbTimer("OfferService.loadHighBid");
+    private static final LatencyHistogram TOP_OFFERS_TIME = Metrics.dbTimer("OfferService.loadTopOffers");
+    private static final LatencyHistogram ITEM_NAME_TIME = Metrics.dbTimer("OfferService.loadItemName");
+    private static final LatencyHistogram ITEM_EXISTS_TIME = Metrics.dbTimer("OfferService.itemExists");
+    private static final LongAdder OFFERS_ACCEPTED = Metrics.counter("offers_accepted_total",
+        "Offers stored as the new high bid of their item");
 
+    private final DatabaseRouter router;
+    private final DatabaseRouter.Routed<OfferDao> offers;
+    private final ResourceVersions versions;
+    private final HighBidBook highBids;
+    private final BidWritePipeline writePipeline;
+    private final OfferRanking ranking;
+    private final Function<String, String> itemNames;
+    private final BiConsumer<String, Money> committedPrices;
+    private final int fetchSize = EnvConfig.getInt("OFFER_FETCH_SIZE", 500);
+
+    /**
+     * Constructs the service; item names for the ranking are read from the database.
+     */
     public OfferService(Jdbi jdbi) {
-        this.jdbi = jdbi;
+        this(jdbi, null, new ResourceVersions());
+    }
+
+    /**
+     * @param itemNames Resolves an item ID to its name (e.g. from the item cache),
+     *                  so the ranking is served without SQL.
+     * @param versions Per-item versions (ETags), bumped whenever an offer is accepted.
+     */
+    public OfferService(Jdbi jdbi, Function<String, String> itemNames, ResourceVersions versions) {
+        this(jdbi, itemNames, versions, null);
+    }
+
+    /**
+     * @param committedPrices Told the new price of an item once an accepted bid is durable
+     *                        (e.g. ItemService::applyCommittedPrice), so item caches and
+     *                        listings follow every bid, whoever placed it.
+     */
+    public OfferService(Jdbi jdbi, Function<String, String> itemNames, ResourceVersions versions,
+                        BiConsumer<String, Money> committedPrices) {
+        this(DatabaseRouter.primaryOnly(jdbi), itemNames, versions, committedPrices);
+    }
+
+    /**
+     * @param router Offer listings of an item may be served by the read replica,
+     *               except right after a bid on it; bids and the data kept in memory
+     *               (high bids, ranking) use the primary.
+     */
+    public OfferService(DatabaseRouter router, Function<String, String> itemNames, ResourceVersions versions,
+                        BiConsumer<String, Money> committedPrices) {
+        this.router = router;
+        this.offers = router.onDemand(OfferDao.class);
+        this.versions = versions;
+        this.itemNames = itemNames != null ? itemNames : this::loadItemName;
+        this.committedPrices = committedPrices != null ? committedPrices : (itemId, price) -> { };
+        this.highBids = new HighBidBook(this::loadHighBid);
+        this.writePipeline = new BidWritePipeline(router.write(),
+            EnvConfig.getInt("BID_BATCH_MAX_SIZE", 64),
+            EnvConfig.getLong("BID_BATCH_MAX_WAIT_MS", 2),
+            EnvConfig.getInt("BID_QUEUE_CAPACITY", 10_000));
+        int rankingSize = EnvConfig.getInt("RANKING_SIZE", 10);
+        this.ranking = new OfferRanking(rankingSize,
+            EnvConfig.getInt("RANKING_ITEM_SIZE", 20),
+            loadTopOffers(rankingSize),
+            this::loadTopOffersByItemId);
     }
 
     /**
@@ -24,74 +102,160 @@ public class OfferService {
      * @return A List of offers.
      */
     public List<Offer> getOffersByItemId(String itemId) {
-        return jdbi.withHandle(handle -> 
-            handle.createQuery(
-                "SELECT * FROM offers WHERE item_id = :itemId ORDER BY amount DESC")
-                .bind("itemId", itemId)
-                .mapToBean(Offer.class)
-                .list()
-        );
+        return OFFERS_BY_ITEM_TIME.time(() -> offers.readFor(itemId).findByItemId(itemId));
+    }
+
+    /**
+     * Streams all offers of an item, highest first, to the given action.
+     * Rows are read through a database cursor (OFFER_FETCH_SIZE rows at a time),
+     * so memory stays constant however many offers the item has.
+     * The cursor's transaction stays open until the action has seen every row.
+     * @param itemId The ID of the item.
+     * @param action Called once per offer.
+     */
+    public void forEachOfferByItemId(String itemId, Consumer<Offer> action) {
+        // PostgreSQL only uses a cursor for a fetch size inside a transaction
+        STREAM_OFFERS_TIME.time(() -> router.readFor(itemId).useTransaction(handle -> {
+            handle.addCustomizer(StatementCustomizers.fetchSize(fetchSize));
+            try (Stream<Offer> rows = handle.attach(OfferDao.class).streamByItemId(itemId)) {
+                rows.forEach(action);
+            }
+        }));
+    }
+
+    /**
+     * Retrieves the highest offers of an item.
+     * Served from the in-memory ranking when the limit fits in it (RANKING_ITEM_SIZE).
+     * @param itemId The ID of the item.
+     * @param limit Maximum number of offers returned.
+     * @return A List of offers, highest first.
+     */
+    public List<Offer> getTopOffersByItemId(String itemId, int limit) {
+        if (limit <= ranking.getItemSize()) {
+            return ranking.topForItem(itemId, limit);
+        }
+        return TOP_OFFERS_BY_ITEM_TIME.time(() -> offers.readFor(itemId).findTopByItemId(itemId, limit));
+    }
+
+    /**
+     * Per-item versions used for conditional GETs of the item and its offers.
+     */
+    public ResourceVersions getVersions() {
+        return versions;
+    }
+
+    /**
+     * Whether the item exists (one primary-key lookup).
+     */
+    public boolean itemExists(String itemId) {
+        return ITEM_EXISTS_TIME.time(() -> offers.readFor(itemId).findItemName(itemId).isPresent());
+    }
+
+    /**
+     * Number of offers kept by the overall ranking (RANKING_SIZE).
+     */
+    public int getRankingSize() {
+        return ranking.getSize();
+    }
+
+    /**
+     * Reads the highest offers of an item from the primary (used to fill the ranking).
+     */
+    private List<Offer> loadTopOffersByItemId(String itemId, int limit) {
+        return TOP_OFFERS_BY_ITEM_TIME.time(() -> offers.write().findTopByItemId(itemId, limit));
     }
 
     /**
      * Adds a new offer, but only if it's higher than the current max offer.
-     * This entire method runs in a single database transaction.
-     * @param newOffer The offer to add.
+     * The check runs first against the in-memory {@link HighBidBook}, so a bid
+     * that is too low never reaches the database. Bids that pass it are handed to the
+     * {@link BidWritePipeline}, which accepts each one with a guarded update of the
+     * item's high bid (exact even with several servers) and stores the offer and the
+     * new item price together with other concurrent bids in one transaction.
+     * An accepted offer always becomes the item's current price.
+     * @param newOffer The offer to add (its generated id and timestamp are filled in).
      * @throws InvalidOfferException if the offer is not high enough.
+     * @throws NotFoundException if the item does not exist.
      */
     public void addOffer(Offer newOffer) throws InvalidOfferException {
+        String itemId = newOffer.getItem_id();
+
+        // 1. Enforce Business Logic (Req 2) against the current high bid
+        if (!highBids.tryRaise(itemId, newOffer.getAmount())) {
+            throw new InvalidOfferException(
+                "Offer must be higher than the current max bid of " + formatBid(highBids.getHighBid(itemId)));
+        }
+
+        // 2. If logic passes, store the offer and the new price (returns once durable)
+        boolean accepted;
         try {
-            jdbi.useTransaction(handle -> {
-                // 1. Get the current highest offer for this item
-                Optional<Double> maxOfferOpt = handle.createQuery(
-                    "SELECT MAX(amount) FROM offers WHERE item_id = :itemId")
-                    .bind("itemId", newOffer.getItem_id())
-                    .mapTo(Double.class)
-                    .findFirst();
-
-                // 2. Enforce Business Logic (Req 2)
-                if (maxOfferOpt.isPresent() && newOffer.getAmount() <= maxOfferOpt.get()) {
-                    throw new InvalidOfferException(
-                        "Offer must be higher than the current max bid of $" + maxOfferOpt.get());
-                }
-
-                // 3. If logic passes, insert the new offer
-                handle.createUpdate(
-                    "INSERT INTO offers (item_id, name, email, amount) " +
-                    "VALUES (:item_id, :name, :email, :amount)")
-                    .bindBean(newOffer)
-                    .execute();
-            });
-        } catch (StatementException e) {
-            // Unwrap the custom exception if it was thrown inside the transaction
-            if (e.getCause() instanceof InvalidOfferException) {
-                throw (InvalidOfferException) e.getCause();
-            }
+            accepted = writePipeline.write(newOffer);
+        } catch (RuntimeException e) {
+            // The bid was not stored, so the book must not keep it
+            highBids.rollBack(itemId, newOffer.getAmount());
             throw e;
         }
+        if (!accepted) {
+            // The database holds an equal or higher bid (e.g. placed through another server)
+            throw new InvalidOfferException(
+                "Offer must be higher than the current max bid of " + formatBid(highBids.refresh(itemId)));
+        }
+        // Reads of this item stay on the primary until the replica has the bid
+        router.markWritten(itemId);
+        committedPrices.accept(itemId, newOffer.getAmount());
+        ranking.record(newOffer);
+        versions.bump(itemId);
+        OFFERS_ACCEPTED.increment();
+    }
+
+    /**
+     * Reads the high bid of an item (used to fill the high-bid book).
+     * A primary-key lookup of the column kept by the bid pipeline, not a scan of the offers.
+     * @throws NotFoundException if the item does not exist.
+     */
+    private long loadHighBid(String itemId) {
+        Money max = HIGH_BID_TIME.time(() -> offers.write().findHighBid(itemId).orElse(null));
+        if (max != null) {
+            return max.getCents();
+        }
+        // No bids yet, or no such item
+        if (offers.write().findItemName(itemId).isEmpty()) {
+            throw new NotFoundException("Item not found: " + itemId);
+        }
+        return HighBidBook.NO_BIDS;
+    }
+
+    private static String formatBid(Money bid) {
+        return bid != null ? bid.format() : Money.ZERO.format();
     }
 
     /**
      * NEW FUNCTIONALITY (Ranking Page)
-     * Retrieves the top 10 highest offers from across all items,
-     * joining with the items table to get the item name.
+     * Retrieves the top offers (RANKING_SIZE) from across all items, with the item name.
+     * Served from the in-memory ranking; item names come from the name resolver.
      */
     public List<RankedOffer> getTopRankedOffers() {
-        // Use "itemName" alias to respect Jdbi mapping
-        String sql = "SELECT " +
-                     "  o.amount, " +
-                     "  o.name AS \"name\", " +  // Bidder name
-                     "  o.email, " +
-                     "  i.name AS \"itemName\" " + // Item name
-                     "FROM offers o " +
-                     "JOIN items i ON o.item_id = i.id " +
-                     "ORDER BY o.amount DESC " +
-                     "LIMIT 10";
-                     
-        return jdbi.withHandle(handle ->
-            handle.createQuery(sql)
-                  .mapToBean(RankedOffer.class)
-                  .list()
-        );
-    }
-}
\ No newline at end of file
+        List<Offer> top = ranking.top(ranking.getSize());
+        List<RankedOffer> ranked = new ArrayList<>(top.size());
+        for (Offer offer : top) {
+            RankedOffer rankedOffer = new RankedOffer();
+            rankedOffer.setAmount(offer.getAmount());
+            rankedOffer.setName(offer.getName());
+            rankedOffer.setEmail(offer.getEmail());
+            rankedOffer.setItemName(itemNames.apply(offer.getItem_id()));
+            ranked.add(rankedOffer);
+        }
+        return ranked;
+    }
+
+    /**
+     * Reads the top offers from across all items (used once, to seed the ranking).
+     */
+    private List<Offer> loadTopOffers(int limit) {
+        return TOP_OFFERS_TIME.time(() -> offers.write().findTop(limit));
+    }
+
+    private String loadItemName(String itemId) {
+        return ITEM_NAME_TIME.time(() -> offers.read().findItemName(itemId).orElse(itemId));
+    }
+}
@@ -1,33 +1,30 @@
 package com.collectibles.offer;
 
-// Imports para formatear moneda
-import java.text.NumberFormat;
-import java.util.Locale;
+import com.collectibles.money.Money;
 
 public class RankedOffer {
 
     private String itemName;
-    private double amount;
+    private Money amount;
     private String name;
     private String email;
 
     public RankedOffer() {}
 
     // Getters para Jdbi
-    public double getAmount() { return amount; }
+    public Money getAmount() { return amount; }
     public String getItemName() { return itemName; }
     public String getName() { return name; }
     public String getEmail() { return email; }
 
     // --- (NUEVO GETTER DE FORMATO PARA MUSTACHE) ---
     public String getFormattedAmount() {
-        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(Locale.US);
-        return currencyFormat.format(this.amount);
+        return amount != null ? amount.format() : null; // Cached by Money, no NumberFormat per row
     }
 
     // Setters para Jdbi
     public void setItemName(String itemName) { this.itemName = itemName; }
-    public void setAmount(double amount) { this.amount = amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
     public void setName(String name) { this.name = name; }
     public void setEmail(String email) { this.email = email; }
 }
\ No newline at end of file
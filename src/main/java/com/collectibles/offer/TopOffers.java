@@ -0,0 +1,63 @@
+package com.collectibles.offer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * The N highest offers, kept sorted as offers arrive.
+ * Adding an offer costs O(log N); readers iterate the skip list without locking.
+ */
+class TopOffers {
+
+    /** Highest amount first; ties keep the earlier offer first. */
+    static final Comparator<Offer> HIGHEST_FIRST = Comparator
+        .comparing(Offer::getAmount, Comparator.reverseOrder())
+        .thenComparingInt(Offer::getOffer_id);
+
+    private final int capacity;
+    private final ConcurrentSkipListSet<Offer> offers = new ConcurrentSkipListSet<>(HIGHEST_FIRST);
+    // ConcurrentSkipListSet.size() is O(n), so the size is tracked here (guarded by "this")
+    private int size;
+
+    TopOffers(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    int getCapacity() { return capacity; }
+
+    /**
+     * Adds the offer if it ranks among the top N, dropping the lowest one if full.
+     */
+    synchronized void add(Offer offer) {
+        if (size == capacity && HIGHEST_FIRST.compare(offer, offers.last()) >= 0) {
+            return; // Does not make the cut
+        }
+        if (offers.add(offer)) {
+            size++;
+            if (size > capacity) {
+                offers.pollLast();
+                size--;
+            }
+        }
+    }
+
+    synchronized void addAll(Collection<Offer> seed) {
+        seed.forEach(this::add);
+    }
+
+    /**
+     * Returns up to {@code limit} offers, highest first.
+     */
+    List<Offer> top(int limit) {
+        List<Offer> result = new ArrayList<>(Math.min(limit, capacity));
+        Iterator<Offer> it = offers.iterator();
+        while (result.size() < limit && it.hasNext()) {
+            result.add(it.next());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,140 @@
+package com.collectibles.server;
+
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the Spark handler on the given executor instead of the Jetty thread.
+ * The request is put in async mode, the Jetty thread goes back to the pool at once,
+ * and the handler runs and blocks (JDBC, group commit) on the executor's thread;
+ * the response is completed when it returns. At most {@code maxConcurrency} requests
+ * run at a time, the others wait in arrival order without holding a Jetty thread.
+ *
+ * WebSocket upgrades stay on the Jetty thread with the wrapped handler, which lets
+ * them fall through to the WebSocket handler. Offloaded requests go straight to a
+ * Spark route filter that answers unmatched paths itself (404), because the request
+ * is already marked handled when it runs. They get no HTTP session (none is used).
+ */
+class OffloadingHandler extends HandlerWrapper {
+
+    private final Filter offloaded;
+    private final Executor executor;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+
+    /**
+     * @param inline Spark handler for WebSocket upgrades (may leave the request unhandled).
+     * @param offloaded Spark route filter run on the executor (always answers the request).
+     */
+    OffloadingHandler(Handler inline, Filter offloaded, Executor executor, int maxConcurrency) {
+        setHandler(inline);
+        this.offloaded = offloaded;
+        this.executor = executor;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.permits = new Semaphore(this.maxConcurrency, true);
+    }
+
+    /** Requests currently running on the executor. */
+    int getInFlight() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /** Requests waiting for a permit. */
+    int getQueued() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public void handle(String target, Request baseRequest, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException, ServletException {
+        if (request.getDispatcherType() != DispatcherType.REQUEST
+                || "websocket".equalsIgnoreCase(request.getHeader("Upgrade"))) {
+            super.handle(target, baseRequest, request, response);
+            return;
+        }
+
+        AsyncContext async = request.startAsync();
+        async.setTimeout(0); // The handler decides how long it takes (e.g. SSE streams)
+        OffloadedRequest offloaded = new OffloadedRequest(request, async);
+        // Nothing after this handler may answer the request in the meantime
+        baseRequest.setHandled(true);
+        executor.execute(() -> run(offloaded, response, async));
+    }
+
+    private void run(OffloadedRequest request,
+                     HttpServletResponse response, AsyncContext async) {
+        boolean acquired = false;
+        try {
+            permits.acquire();
+            acquired = true;
+            offloaded.doFilter(request, response, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendServerError(response);
+        } catch (Exception | Error e) {
+            System.err.println("[Server] Request failed on " + Thread.currentThread() + ": " + e);
+            sendServerError(response);
+        } finally {
+            if (acquired) {
+                permits.release();
+            }
+            if (!request.isTakenOver()) {
+                async.complete();
+            }
+        }
+    }
+
+    private static void sendServerError(HttpServletResponse response) {
+        if (!response.isCommitted()) {
+            try {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            } catch (IOException | IllegalStateException ignored) {
+                // Client went away
+            }
+        }
+    }
+
+    /**
+     * The request as seen by the handler: already async, so a route that starts
+     * async itself (e.g. the SSE stream) gets the same context and takes over completing it.
+     */
+    private static final class OffloadedRequest extends HttpServletRequestWrapper {
+
+        private final AsyncContext async;
+        private volatile boolean takenOver;
+
+        OffloadedRequest(HttpServletRequest request, AsyncContext async) {
+            super(request);
+            this.async = async;
+        }
+
+        boolean isTakenOver() {
+            return takenOver;
+        }
+
+        @Override
+        public AsyncContext startAsync() {
+            takenOver = true;
+            return async;
+        }
+
+        @Override
+        public AsyncContext startAsync(ServletRequest request, ServletResponse response) {
+            takenOver = true;
+            return async;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.collectibles.server;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import spark.ExceptionMapper;
+import spark.embeddedserver.EmbeddedServer;
+import spark.embeddedserver.EmbeddedServerFactory;
+import spark.embeddedserver.jetty.EmbeddedJettyServer;
+import spark.embeddedserver.jetty.JettyHandler;
+import spark.embeddedserver.jetty.JettyServerFactory;
+import spark.http.matching.MatcherFilter;
+import spark.route.Routes;
+import spark.staticfiles.StaticFilesConfiguration;
+import java.util.concurrent.Executor;
+
+/**
+ * Spark embedded-server factory that builds the same Jetty server as Spark's default,
+ * with the route handler wrapped in an {@link OffloadingHandler}.
+ */
+class OffloadingJettyFactory implements EmbeddedServerFactory, JettyServerFactory {
+
+    private final Executor executor;
+    private final int maxConcurrency;
+    private volatile OffloadingHandler handler;
+
+    OffloadingJettyFactory(Executor executor, int maxConcurrency) {
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public EmbeddedServer create(Routes routeMatcher, StaticFilesConfiguration staticFiles,
+                                 ExceptionMapper exceptionMapper, boolean hasMultipleHandler) {
+        JettyHandler inline = new JettyHandler(matcherFilter(routeMatcher, staticFiles, exceptionMapper, hasMultipleHandler));
+        inline.getSessionCookieConfig().setHttpOnly(true);
+        handler = new OffloadingHandler(inline,
+            matcherFilter(routeMatcher, staticFiles, exceptionMapper, false),
+            executor, maxConcurrency);
+        return new EmbeddedJettyServer(this, handler);
+    }
+
+    /** The handler of the running server (null before it is created). */
+    OffloadingHandler getHandler() {
+        return handler;
+    }
+
+    private static MatcherFilter matcherFilter(Routes routeMatcher, StaticFilesConfiguration staticFiles,
+                                               ExceptionMapper exceptionMapper, boolean hasOtherHandlers) {
+        MatcherFilter matcherFilter = new MatcherFilter(routeMatcher, staticFiles, exceptionMapper, false, hasOtherHandlers);
+        matcherFilter.init(null);
+        return matcherFilter;
+    }
+
+    // Same Jetty server (and I/O thread pool) as Spark's default factory
+
+    @Override
+    public Server create(int maxThreads, int minThreads, int threadTimeoutMillis) {
+        if (maxThreads > 0) {
+            return new Server(new QueuedThreadPool(maxThreads,
+                minThreads > 0 ? minThreads : 8,
+                threadTimeoutMillis > 0 ? threadTimeoutMillis : 60_000));
+        }
+        return new Server();
+    }
+
+    @Override
+    public Server create(ThreadPool threadPool) {
+        return threadPool != null ? new Server(threadPool) : new Server();
+    }
+}
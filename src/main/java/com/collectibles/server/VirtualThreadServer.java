@@ -0,0 +1,74 @@
+package com.collectibles.server;
+
+import com.collectibles.metrics.Metrics;
+import com.collectibles.utils.EnvConfig;
+import spark.embeddedserver.EmbeddedServers;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Opt-in mode (VIRTUAL_THREADS=true) that serves the Spark routes on virtual threads.
+ * Jetty keeps its small platform thread pool for I/O; each request is handed to a
+ * new virtual thread, so a request waiting on PostgreSQL or on the bid group commit
+ * parks cheaply instead of holding an OS thread. At most VIRTUAL_THREADS_MAX_CONCURRENCY
+ * requests run at once (the rest wait in order), and database access stays bounded
+ * by the connection pool (DB_POOL_SIZE): extra requests park while they wait for a connection.
+ * Virtual threads need Java 21+; on older runtimes the default thread pool is kept.
+ */
+public final class VirtualThreadServer {
+
+    private VirtualThreadServer() {}
+
+    /**
+     * Installs the virtual-thread server if enabled and supported.
+     * Must run before the first route, filter or WebSocket is registered.
+     * @return true if requests will run on virtual threads.
+     */
+    public static boolean installIfEnabled() {
+        if (!EnvConfig.getBoolean("VIRTUAL_THREADS", false)) {
+            return false;
+        }
+        ExecutorService executor = newVirtualThreadExecutor();
+        if (executor == null) {
+            System.err.println("[Server] VIRTUAL_THREADS needs Java 21+ (running " + Runtime.version()
+                + "), using the default thread pool.");
+            return false;
+        }
+        int maxConcurrency = EnvConfig.getInt("VIRTUAL_THREADS_MAX_CONCURRENCY", 1000);
+        OffloadingJettyFactory factory = new OffloadingJettyFactory(executor, maxConcurrency);
+        EmbeddedServers.add(EmbeddedServers.defaultIdentifier(), factory);
+
+        Metrics.gauge("http_offloaded_in_flight", "Requests running on virtual threads", () -> {
+            OffloadingHandler handler = factory.getHandler();
+            return handler != null ? handler.getInFlight() : 0;
+        });
+        Metrics.gauge("http_offloaded_queued", "Requests waiting for a concurrency permit", () -> {
+            OffloadingHandler handler = factory.getHandler();
+            return handler != null ? handler.getQueued() : 0;
+        });
+        System.out.println("[Server] Serving requests on virtual threads (max " + maxConcurrency + " concurrent).");
+        return true;
+    }
+
+    /**
+     * Thread-per-task executor of named virtual threads, or null before Java 21.
+     * Built through reflection because the project compiles for Java 17.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        if (Runtime.version().feature() < 21) {
+            return null;
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "http-vt-", 0L);
+            ThreadFactory threads = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                .invoke(null, threads);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.err.println("[Server] Could not create virtual threads: " + e);
+            return null;
+        }
+    }
+}
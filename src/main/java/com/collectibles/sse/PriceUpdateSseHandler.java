@@ -0,0 +1,219 @@
+package com.collectibles.sse;
+
+import com.collectibles.exception.NotFoundException;
+import com.collectibles.offer.Offer;
+import com.collectibles.utils.EnvConfig;
+import com.collectibles.utils.JsonUtil;
+import com.collectibles.websocket.ItemSnapshot;
+import com.collectibles.websocket.SnapshotProvider;
+import spark.Request;
+import spark.Response;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events stream of an item's accepted offers and price changes,
+ * for clients that cannot keep a WebSocket open (e.g. behind proxies).
+ * GET /sse/price-updates/:itemId
+ *
+ * Every item with listeners keeps a bounded ring buffer of its recent events
+ * (SSE_REPLAY_EVENTS), kept for SSE_CHANNEL_RETENTION_SECONDS after its last listener
+ * leaves so that reconnects can still resume; items nobody listens to keep no state.
+ * A reconnect carrying Last-Event-ID (sent automatically by EventSource) only
+ * replays the events it missed; a new client, or one whose id has already been
+ * evicted or comes from another server run, first receives a "snapshot" event
+ * with the item and its top offers.
+ *
+ * Events:
+ *   event: snapshot  data: {"itemId","item","offers"}
+ *   event: offer     data: {"itemId","offer","newPrice"}  (an accepted offer is the new price)
+ */
+public final class PriceUpdateSseHandler {
+
+    private static final int REPLAY_EVENTS = EnvConfig.getInt("SSE_REPLAY_EVENTS", 256);
+    private static final int CLIENT_QUEUE_CAPACITY = EnvConfig.getInt("SSE_CLIENT_QUEUE_CAPACITY", 64);
+    private static final long HEARTBEAT_SECONDS = EnvConfig.getLong("SSE_HEARTBEAT_SECONDS", 15);
+    private static final long RETENTION_SECONDS = EnvConfig.getLong("SSE_CHANNEL_RETENTION_SECONDS", 60);
+    private static final int SNAPSHOT_OFFERS = EnvConfig.getInt("WS_SNAPSHOT_OFFERS", 20);
+    // Loads of a snapshot that the stream outran before the client is dropped
+    private static final int SNAPSHOT_ATTEMPTS = 3;
+
+    // Sent before the first event: reconnect delay hint (ms) for EventSource
+    private static final byte[] STREAM_PREAMBLE = "retry: 3000\n\n".getBytes(StandardCharsets.UTF_8);
+    // Comment line that keeps idle proxies from closing the connection (and detects dead clients)
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+
+    // Changes on every restart, like the ETags of ResourceVersions; a channel created
+    // again after eviction also gets a new generation, so its ids never repeat either
+    private static final String BOOT = Long.toString(System.currentTimeMillis(), 36);
+    private static final AtomicLong channelGenerations = new AtomicLong();
+
+    private static final Map<String, SseChannel> channels = new ConcurrentHashMap<>();
+    private static volatile SnapshotProvider snapshotProvider;
+
+    // Publishing runs here, so the bid request never waits on client I/O
+    private static final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sse-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Snapshots need database reads, so they are loaded off the Jetty and publisher threads
+    private static final ExecutorService snapshotLoader = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "sse-snapshots");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        if (HEARTBEAT_SECONDS > 0) {
+            publisher.scheduleAtFixedRate(PriceUpdateSseHandler::sendHeartbeats,
+                HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+        }
+        long sweepSeconds = Math.max(1, RETENTION_SECONDS);
+        publisher.scheduleAtFixedRate(PriceUpdateSseHandler::evictIdleChannels,
+            sweepSeconds, sweepSeconds, TimeUnit.SECONDS);
+    }
+
+    private PriceUpdateSseHandler() {}
+
+    /**
+     * Route handler: opens the event stream of the item and keeps it open
+     * asynchronously (no request thread is held while the client listens).
+     * @throws NotFoundException if the item does not exist (no channel is created for it).
+     */
+    public static Object stream(Request req, Response res) throws IOException {
+        String itemId = req.params(":itemId");
+        SnapshotProvider provider = snapshotProvider;
+        if (provider != null && !provider.exists(itemId)) {
+            throw new NotFoundException("Item not found: " + itemId);
+        }
+        HttpServletResponse raw = res.raw();
+        raw.setStatus(200);
+        raw.setContentType("text/event-stream");
+        raw.setCharacterEncoding("UTF-8");
+        raw.setHeader("Cache-Control", "no-cache");
+        raw.setHeader("X-Accel-Buffering", "no"); // Ask nginx-style proxies not to buffer the stream
+        raw.getOutputStream().write(STREAM_PREAMBLE);
+        raw.flushBuffer(); // Commits the response, so Spark leaves the body alone
+
+        AsyncContext async = req.raw().startAsync();
+        async.setTimeout(0);
+        SseChannel channel = holdChannel(itemId);
+        long lastEventId = channel.eventNumber(req.headers("Last-Event-ID"));
+        SseClient client;
+        try {
+            client = new SseClient(async, CLIENT_QUEUE_CAPACITY, channel::detach);
+        } catch (IOException | RuntimeException e) {
+            channel.release();
+            throw e;
+        }
+
+        if (lastEventId < 0 || !channel.resume(client, lastEventId)) {
+            sendSnapshot(channel, client);
+        }
+        return "";
+    }
+
+    /**
+     * Publishes an accepted offer to the item's stream.
+     * Returns immediately; items without a stream (no recent listeners) are skipped,
+     * since their next client starts from a snapshot anyway.
+     * @param offer The stored offer (with its generated id and timestamp).
+     */
+    public static void publishOffer(Offer offer) {
+        publisher.execute(() -> {
+            SseChannel channel = channels.get(offer.getItem_id());
+            if (channel == null) {
+                return;
+            }
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("itemId", offer.getItem_id());
+            data.put("offer", offer);
+            data.put("newPrice", offer.getAmount().toString());
+            channel.publish("offer", JsonUtil.toJson(data));
+        });
+    }
+
+    /**
+     * Sets the source of the snapshots sent to new (or too far behind) clients.
+     */
+    public static void setSnapshotProvider(SnapshotProvider provider) {
+        snapshotProvider = provider;
+    }
+
+    /**
+     * Loads the item's state and sends it, followed by the events published meanwhile.
+     * The stream position is read before loading, so no event can fall in between
+     * (an offer already in the snapshot is skipped by the client by offer id).
+     * If more events were published during the load than the buffer holds, the
+     * snapshot is loaded again rather than leaving a gap.
+     */
+    private static void sendSnapshot(SseChannel channel, SseClient client) {
+        SnapshotProvider provider = snapshotProvider;
+        if (provider == null) {
+            channel.attach(client, JsonUtil.toJson(Map.of("itemId", channel.getItemId())), channel.getLastId());
+            return;
+        }
+        snapshotLoader.execute(() -> {
+            try {
+                for (int attempt = 0; attempt < SNAPSHOT_ATTEMPTS; attempt++) {
+                    long snapshotId = channel.getLastId();
+                    ItemSnapshot snapshot = provider.load(channel.getItemId(), SNAPSHOT_OFFERS);
+                    Map<String, Object> data = new LinkedHashMap<>();
+                    data.put("itemId", channel.getItemId());
+                    data.put("item", snapshot.getItem());
+                    data.put("offers", snapshot.getOffers());
+                    if (channel.attach(client, JsonUtil.toJson(data), snapshotId)) {
+                        return;
+                    }
+                }
+                System.err.println("[SSE] Snapshot of " + channel.getItemId() + " kept falling behind");
+            } catch (RuntimeException e) {
+                System.err.println("[SSE] Could not load snapshot of " + channel.getItemId() + ": " + e.getMessage());
+            }
+            client.close(); // EventSource reconnects and tries again
+        });
+    }
+
+    private static void sendHeartbeats() {
+        for (SseChannel channel : channels.values()) {
+            for (SseClient client : channel.getClients()) {
+                client.send(HEARTBEAT);
+            }
+        }
+    }
+
+    /** The item's channel, created if needed, held for a new client (atomically with eviction). */
+    private static SseChannel holdChannel(String itemId) {
+        return channels.compute(itemId, (id, channel) -> {
+            SseChannel held = channel;
+            if (held == null) {
+                String epoch = BOOT + "." + Long.toString(channelGenerations.incrementAndGet(), 36);
+                held = new SseChannel(id, epoch, REPLAY_EVENTS);
+            }
+            held.hold();
+            return held;
+        });
+    }
+
+    /** Drops the channels nobody has listened to for SSE_CHANNEL_RETENTION_SECONDS. */
+    private static void evictIdleChannels() {
+        long now = System.nanoTime();
+        long retentionNanos = TimeUnit.SECONDS.toNanos(RETENTION_SECONDS);
+        for (String itemId : channels.keySet()) {
+            channels.computeIfPresent(itemId, (id, channel) -> channel.isIdle(now, retentionNanos) ? null : channel);
+        }
+    }
+}
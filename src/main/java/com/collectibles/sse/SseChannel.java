@@ -0,0 +1,146 @@
+package com.collectibles.sse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Event stream of one item: a bounded ring buffer of its most recent events
+ * plus the clients currently listening.
+ * Event ids look like {@code <epoch>-<n>}, where n increases by one per event, so a
+ * reconnecting client's Last-Event-ID tells exactly which buffered events it missed.
+ * The epoch identifies this stream (e.g. the server run), so an id from another
+ * run or server is never mistaken for a position in this one.
+ * The channel counts the clients holding it (including those still waiting for
+ * their snapshot), so the owner can drop it once nobody has listened for a while.
+ */
+class SseChannel {
+
+    private final String itemId;
+    private final String epoch;
+    private final byte[][] ring;
+    private final long[] ringIds;
+    private final Set<SseClient> clients = ConcurrentHashMap.newKeySet();
+
+    // Guarded by "this"
+    private long lastId;
+    private int holders;
+    private long idleSinceNanos = System.nanoTime();
+
+    /**
+     * @param epoch Prefix of the event ids, unique to this stream.
+     */
+    SseChannel(String itemId, String epoch, int capacity) {
+        this.itemId = itemId;
+        this.epoch = epoch;
+        this.ring = new byte[Math.max(1, capacity)][];
+        this.ringIds = new long[ring.length];
+    }
+
+    String getItemId() { return itemId; }
+
+    Set<SseClient> getClients() { return clients; }
+
+    synchronized long getLastId() { return lastId; }
+
+    /** Registers a client that is about to resume or attach (released by {@link #detach}). */
+    synchronized void hold() {
+        holders++;
+    }
+
+    /** Unregisters a client that went away, whether or not it was attached yet. */
+    void detach(SseClient client) {
+        clients.remove(client);
+        release();
+    }
+
+    synchronized void release() {
+        if (--holders == 0) {
+            idleSinceNanos = System.nanoTime();
+        }
+    }
+
+    /** True if no client has held the channel for at least the given time. */
+    synchronized boolean isIdle(long nowNanos, long retentionNanos) {
+        return holders == 0 && nowNanos - idleSinceNanos >= retentionNanos;
+    }
+
+    /**
+     * Position in this stream of a Last-Event-ID header.
+     * @return -1 if there is no id, or it was not issued by this stream (the client needs a snapshot).
+     */
+    long eventNumber(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(epoch.length() + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Appends an event to the buffer and sends it to every listening client.
+     * Sends never block, so they are done under the lock to keep replay and live
+     * events in order.
+     */
+    synchronized void publish(String eventName, String data) {
+        long id = ++lastId;
+        byte[] event = encode(id, eventName, data);
+        int slot = (int) (id % ring.length);
+        ring[slot] = event;
+        ringIds[slot] = id;
+        for (SseClient client : clients) {
+            client.send(event);
+        }
+    }
+
+    /**
+     * Replays the buffered events after the given id and registers the client
+     * for the live ones, atomically.
+     * @return false if events after the id were already evicted (the client needs a snapshot).
+     */
+    synchronized boolean resume(SseClient client, long afterId) {
+        if (afterId > lastId || lastId - afterId > ring.length) {
+            return false;
+        }
+        for (long id = afterId + 1; id <= lastId; id++) {
+            int slot = (int) (id % ring.length);
+            if (ringIds[slot] != id) {
+                return false; // Overwritten: cannot replay without a gap
+            }
+        }
+        for (long id = afterId + 1; id <= lastId; id++) {
+            client.send(ring[(int) (id % ring.length)]);
+        }
+        clients.add(client);
+        return true;
+    }
+
+    /**
+     * Sends a snapshot taken when the stream was at {@code snapshotId}, replays the
+     * buffered events published since, and registers the client.
+     * @return false (and sends nothing) if some of those events were already evicted,
+     *         so the snapshot is too old and must be loaded again.
+     */
+    synchronized boolean attach(SseClient client, String snapshotData, long snapshotId) {
+        if (lastId - snapshotId > ring.length) {
+            return false;
+        }
+        client.send(encode(snapshotId, "snapshot", snapshotData));
+        for (long id = snapshotId + 1; id <= lastId; id++) {
+            client.send(ring[(int) (id % ring.length)]);
+        }
+        clients.add(client);
+        return true;
+    }
+
+    /**
+     * Encodes one event in the text/event-stream format; JSON data has no raw newlines.
+     */
+    private byte[] encode(long id, String eventName, String data) {
+        return ("id: " + epoch + "-" + id + "\nevent: " + eventName + "\ndata: " + data + "\n\n")
+            .getBytes(StandardCharsets.UTF_8);
+    }
+}
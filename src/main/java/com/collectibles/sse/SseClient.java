@@ -0,0 +1,143 @@
+package com.collectibles.sse;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * One connected Server-Sent Events client.
+ * Events are queued (bounded) and written with Servlet non-blocking I/O,
+ * so a slow client never blocks the publisher; a client that falls too far
+ * behind is disconnected and will resume from its Last-Event-ID.
+ */
+class SseClient implements WriteListener, AsyncListener {
+
+    private final AsyncContext async;
+    private final ServletOutputStream out;
+    private final int capacity;
+    private final Consumer<SseClient> onClose;
+
+    // Guarded by "this"
+    private final ArrayDeque<byte[]> pending = new ArrayDeque<>();
+    private boolean flushNeeded;
+    private boolean closed;
+
+    /**
+     * @param onClose Called once when the client goes away (to unregister it).
+     */
+    SseClient(AsyncContext async, int capacity, Consumer<SseClient> onClose) throws IOException {
+        this.async = async;
+        this.out = async.getResponse().getOutputStream();
+        this.capacity = Math.max(1, capacity);
+        this.onClose = onClose;
+        async.addListener(this);
+        out.setWriteListener(this);
+    }
+
+    /**
+     * Queues an encoded event without blocking.
+     * @return false if the client is closed or was dropped for being too slow.
+     */
+    boolean send(byte[] event) {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (pending.size() >= capacity) {
+                System.err.println("[SSE] Dropping slow client");
+            } else {
+                pending.add(event);
+                if (drain()) {
+                    return true;
+                }
+            }
+        }
+        // Too slow, or the connection failed: end it outside the lock
+        close();
+        return false;
+    }
+
+    @Override
+    public void onWritePossible() {
+        boolean open;
+        synchronized (this) {
+            open = drain();
+        }
+        if (!open) {
+            close();
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        close();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {}
+
+    /**
+     * Ends the response and unregisters the client (idempotent).
+     */
+    void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.clear();
+        }
+        try {
+            async.complete();
+        } catch (IllegalStateException e) {
+            // Already completed by the container
+        }
+        onClose.accept(this);
+    }
+
+    /**
+     * Writes queued events while the container accepts more data.
+     * When isReady() returns false the container calls onWritePossible() later.
+     * @return false if the write failed; the caller must then close the client
+     *         (outside the lock, since close() completes the response).
+     */
+    private boolean drain() {
+        try {
+            while (!closed && out.isReady()) {
+                byte[] next = pending.poll();
+                if (next != null) {
+                    out.write(next);
+                    flushNeeded = true;
+                } else if (flushNeeded) {
+                    flushNeeded = false;
+                    out.flush();
+                } else {
+                    return true;
+                }
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.collectibles.user;
 
+import com.collectibles.utils.JsonStreaming;
 import com.collectibles.utils.JsonUtil;
 import static spark.Spark.*;
 import java.util.Map;
@@ -24,10 +25,10 @@ public class UserController {
         
         path("/users", () -> {
 
-            // GET /api/users
-            get("", (req, res) -> {
+            // GET /api/users (streamed to the response, no intermediate String)
+            get("", JsonStreaming.route((req, res) -> {
                 return userService.getAllUsers();
-            }, JsonUtil::toJson);
+            }));
 
             // GET /api/users/:id
             get("/:id", (req, res) -> {
@@ -21,8 +21,9 @@ public class UserService {
     /**
      * GET /users
      */
-    public List<User> getAllUsers() {
-        return new ArrayList<>(userDatabase.values());
+    public Collection<User> getAllUsers() {
+        // Read-only view: the caller streams it without copying the map
+        return Collections.unmodifiableCollection(userDatabase.values());
     }
 
     /**
@@ -0,0 +1,104 @@
+package com.collectibles.utils;
+
+import spark.Filter;
+import spark.Request;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * gzip negotiation for responses above a size threshold (API_GZIP_MIN_BYTES).
+ * Small bodies are sent as-is: compressing them costs more CPU than it saves bytes.
+ */
+public final class Compression {
+
+    private static final int MIN_BYTES = EnvConfig.getInt("API_GZIP_MIN_BYTES", 1024);
+
+    private Compression() {}
+
+    /**
+     * After filter: asks Spark to gzip the body (it compresses when the response
+     * carries Content-Encoding: gzip and the client accepts it).
+     */
+    public static Filter filter() {
+        return (req, res) -> {
+            if (res.raw().isCommitted() || res.raw().containsHeader("Content-Encoding")) {
+                return; // Streamed (or already encoded) responses handle this themselves
+            }
+            String body = res.body();
+            if (body != null && body.length() >= MIN_BYTES && acceptsGzip(req)) {
+                res.header("Content-Encoding", "gzip");
+                res.header("Vary", "Accept-Encoding");
+            }
+        };
+    }
+
+    /**
+     * Output stream for bodies written incrementally: the first bytes are held back
+     * until the threshold is crossed, then the rest is gzipped on the fly.
+     * Bodies that stay under the threshold are written uncompressed on close().
+     */
+    public static OutputStream outputStream(Request req, HttpServletResponse response) throws IOException {
+        if (!acceptsGzip(req)) {
+            return response.getOutputStream();
+        }
+        response.setHeader("Vary", "Accept-Encoding");
+        return new ThresholdGzipOutputStream(response);
+    }
+
+    private static boolean acceptsGzip(Request req) {
+        String accepted = req.headers("Accept-Encoding");
+        return accepted != null && accepted.toLowerCase().contains("gzip");
+    }
+
+    private static final class ThresholdGzipOutputStream extends OutputStream {
+
+        private final HttpServletResponse response;
+        private ByteArrayOutputStream pending = new ByteArrayOutputStream(MIN_BYTES);
+        private OutputStream out;
+
+        ThresholdGzipOutputStream(HttpServletResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (out != null) {
+                out.write(b, off, len);
+                return;
+            }
+            pending.write(b, off, len);
+            if (pending.size() >= MIN_BYTES) {
+                response.setHeader("Content-Encoding", "gzip");
+                out = new GZIPOutputStream(response.getOutputStream(), 8192);
+                pending.writeTo(out);
+                pending = null;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (out != null) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out != null) {
+                ((GZIPOutputStream) out).finish();
+            } else if (pending != null) {
+                pending.writeTo(response.getOutputStream());
+                pending = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.collectibles.utils;
+
+import com.google.gson.stream.JsonWriter;
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Route mode that writes JSON straight to the response output stream.
+ * Unlike {@code JsonUtil::toJson} as a ResponseTransformer, no String of the
+ * whole body is built: Gson writes through a small buffer into Jetty's, so
+ * memory stays constant however large the payload is.
+ *
+ * <pre>
+ *   get("/users", JsonStreaming.route((req, res) -> userService.getAllUsers()));
+ *   get("/offers/:itemId", JsonStreaming.stream((req, res, json) -> { ... }));
+ * </pre>
+ *
+ * Errors thrown before anything reached the client are handled by the usual
+ * exception handlers; once the response is committed the body is cut short.
+ */
+public final class JsonStreaming {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private JsonStreaming() {}
+
+    /** Writes the body element by element (e.g. rows from a database cursor). */
+    @FunctionalInterface
+    public interface JsonBody {
+        void write(Request req, Response res, JsonWriter json) throws Exception;
+    }
+
+    /**
+     * Streams whatever the given route returns, serialized with Gson.
+     */
+    public static Route route(Route route) {
+        return stream((req, res, json) -> JsonUtil.toJson(route.handle(req, res), json));
+    }
+
+    /**
+     * Lets the body write itself to a JsonWriter bound to the response.
+     */
+    public static Route stream(JsonBody body) {
+        return (req, res) -> {
+            HttpServletResponse raw = res.raw();
+            if (res.type() == null) {
+                res.type("application/json; charset=utf-8");
+            }
+            OutputStream out = Compression.outputStream(req, raw);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            try {
+                JsonWriter json = JsonUtil.newJsonWriter(writer);
+                body.write(req, res, json);
+                json.flush();
+                out.close(); // Finishes the gzip stream (or sends a small body uncompressed)
+                raw.flushBuffer(); // Commits the response, so Spark leaves the body alone
+            } catch (Exception e) {
+                if (!raw.isCommitted()) {
+                    raw.resetBuffer(); // Drop the partial body so the error handler's one is sent alone
+                }
+                throw e;
+            }
+            // The body is already written: Spark has nothing left to serialize
+            return "";
+        };
+    }
+}
@@ -1,18 +1,58 @@
 package com.collectibles.utils;
 
+import com.collectibles.money.Money;
+import com.collectibles.money.MoneyTypeAdapter;
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonNull;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import java.io.InputStreamReader; // <<< CORRECCIÓN AQUÍ
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.lang.reflect.Type;   // <<< CORRECCIÓN AQUÍ
 
 public class JsonUtil {
 
-    private static final Gson gson = new Gson();
+    private static final Gson gson = new GsonBuilder()
+        .registerTypeAdapter(Money.class, new MoneyTypeAdapter())
+        .create();
 
     // Convierte un objeto Java a un String JSON
     public static String toJson(Object object) {
         return gson.toJson(object);
     }
 
+    // Escribe un objeto Java directamente en un JsonWriter, sin crear un String intermedio
+    public static void toJson(Object object, JsonWriter writer) {
+        if (object == null) {
+            gson.toJson(JsonNull.INSTANCE, writer);
+        } else {
+            gson.toJson(object, object.getClass(), writer);
+        }
+    }
+
+    // Crea un JsonWriter con la misma configuración que toJson
+    public static JsonWriter newJsonWriter(Writer writer) {
+        try {
+            return gson.newJsonWriter(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Crea un JsonReader para leer un documento grande elemento por elemento
+    public static JsonReader newJsonReader(Reader reader) {
+        return gson.newJsonReader(reader);
+    }
+
+    // Lee el siguiente valor de un JsonReader como objeto Java, con los mismos adaptadores que fromJson
+    public static <T> T fromJson(JsonReader reader, Class<T> clazz) {
+        return gson.fromJson(reader, clazz);
+    }
+
     // Convierte un String JSON a un objeto Java (usando Class)
     public static <T> T fromJson(String json, Class<T> clazz) {
         return gson.fromJson(json, clazz);
@@ -0,0 +1,149 @@
+package com.collectibles.utils;
+
+import spark.Request;
+import spark.Response;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Version counter per resource key (e.g. an item ID), used for conditional GETs.
+ * Writers bump the key whenever its content changes; readers answer
+ * If-None-Match / If-Modified-Since with a 304 before doing any work.
+ *
+ * ETags look like {@code W/"<boot>-<version>"}: the boot part changes on every
+ * restart, so a tag handed out by a previous run never matches by accident.
+ */
+public class ResourceVersions {
+
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
+    private final String boot;
+    private final long bootSeconds;
+    private final Map<String, Version> versions = new ConcurrentHashMap<>();
+    // Moves on with every bump of any key
+    private final AtomicLong changes = new AtomicLong();
+
+    public ResourceVersions() {
+        long now = System.currentTimeMillis();
+        this.boot = Long.toString(now, 36);
+        this.bootSeconds = now / 1000;
+    }
+
+    /**
+     * Marks the resource as changed.
+     */
+    public void bump(String key) {
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        versions.compute(key, (k, current) ->
+            new Version(current == null ? 1 : current.number + 1, nowSeconds));
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Version of the whole set: changes whenever any resource changes
+     * (used by caches of pages that show many resources).
+     */
+    public long globalVersion() {
+        return changes.get();
+    }
+
+    public String etag(String key) {
+        return etag(versions.get(key));
+    }
+
+    /** Last change of the resource in epoch seconds (the startup time if it never changed). */
+    public long lastModifiedSeconds(String key) {
+        return lastModifiedSeconds(versions.get(key));
+    }
+
+    /**
+     * Sets the validators (ETag, Last-Modified) on the response and checks the
+     * request's conditional headers against them.
+     * Validators are only handed out for resources that exist: a key that was never
+     * bumped is looked up once (and remembered if found), so an unknown key gets no
+     * validators and never matches, and the route goes on to answer 404.
+     * Last-Modified only has second granularity, so If-Modified-Since is honoured only
+     * for dates after the last change: a change later in the same second as the client's
+     * copy must not be answered with 304 (the ETag has no such blind spot).
+     * @param exists Whether the resource exists; only asked for keys never bumped or seen before.
+     * @return true if the client's copy is current: the status is set to 304
+     *         and the route should return an empty body right away.
+     */
+    public boolean notModified(Request req, Response res, String key, BooleanSupplier exists) {
+        Version version = versions.get(key);
+        if (version == null) {
+            if (!exists.getAsBoolean()) {
+                return false;
+            }
+            // Unchanged since startup; bump() replaces this entry
+            version = versions.computeIfAbsent(key, k -> new Version(0, bootSeconds));
+        }
+        String etag = etag(version);
+        long lastModified = lastModifiedSeconds(version);
+        res.header("ETag", etag);
+        res.header("Last-Modified", HTTP_DATE.format(Instant.ofEpochSecond(lastModified)));
+        res.header("Cache-Control", "no-cache"); // Cache, but revalidate every time
+
+        boolean current;
+        String ifNoneMatch = req.headers("If-None-Match");
+        if (ifNoneMatch != null) {
+            // If-None-Match wins over If-Modified-Since (RFC 7232)
+            current = matches(ifNoneMatch, etag);
+        } else {
+            Long since = parseHttpDate(req.headers("If-Modified-Since"));
+            current = since != null && lastModified < since;
+        }
+        if (current) {
+            res.status(304);
+        }
+        return current;
+    }
+
+    private String etag(Version version) {
+        return "W/\"" + boot + "-" + (version == null ? 0 : version.number) + "\"";
+    }
+
+    private long lastModifiedSeconds(Version version) {
+        return version == null ? bootSeconds : version.modifiedSeconds;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        // Weak comparison: W/"x" and "x" are the same tag; "*" matches any existing resource
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals(etag) || tag.equals(opaque) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Long parseHttpDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Instant.from(HTTP_DATE.parse(value.trim())).getEpochSecond();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static final class Version {
+        final long number;
+        final long modifiedSeconds;
+
+        Version(long number, long modifiedSeconds) {
+            this.number = number;
+            this.modifiedSeconds = modifiedSeconds;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.collectibles.websocket;
+
+/**
+ * Snapshot of the price-update broadcaster, serialized as JSON
+ * by the stats endpoint.
+ */
+public class BroadcastStats {
+
+    private final int sessions;
+    private final int watchedItems;
+    private final long tickIntervalMs;
+    private final long updatesReceived;
+    private final long updatesCoalesced;
+    private final long updatesPublished;
+
+    public BroadcastStats(int sessions, int watchedItems, long tickIntervalMs,
+                          long updatesReceived, long updatesCoalesced, long updatesPublished) {
+        this.sessions = sessions;
+        this.watchedItems = watchedItems;
+        this.tickIntervalMs = tickIntervalMs;
+        this.updatesReceived = updatesReceived;
+        this.updatesCoalesced = updatesCoalesced;
+        this.updatesPublished = updatesPublished;
+    }
+
+    public int getSessions() { return sessions; }
+    public int getWatchedItems() { return watchedItems; }
+    public long getTickIntervalMs() { return tickIntervalMs; }
+    public long getUpdatesReceived() { return updatesReceived; }
+    /** Price updates that were replaced by a newer one before being sent. */
+    public long getUpdatesCoalesced() { return updatesCoalesced; }
+    public long getUpdatesPublished() { return updatesPublished; }
+}
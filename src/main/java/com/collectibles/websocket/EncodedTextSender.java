@@ -0,0 +1,33 @@
+package com.collectibles.websocket;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.eclipse.jetty.websocket.common.WebSocketRemoteEndpoint;
+import org.eclipse.jetty.websocket.common.frames.TextFrame;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sends text frames whose UTF-8 payload is already encoded.
+ * Jetty's public {@link RemoteEndpoint} only accepts text as a String, which it
+ * re-encodes for every session; its own endpoint can write a prepared frame, so this
+ * adapter is the one place that relies on Jetty's implementation. Other endpoints
+ * fall back to {@link RemoteEndpoint#sendString(String, WriteCallback)}.
+ */
+final class EncodedTextSender {
+
+    private EncodedTextSender() {}
+
+    /**
+     * @param utf8 The encoded text; only read through a view, so it can be shared by every recipient.
+     */
+    static void send(RemoteEndpoint remote, ByteBuffer utf8, WriteCallback callback) {
+        // duplicate() shares the bytes but gives this send its own position
+        ByteBuffer view = utf8.duplicate();
+        if (remote instanceof WebSocketRemoteEndpoint) {
+            ((WebSocketRemoteEndpoint) remote).uncheckedSendFrame(new TextFrame().setPayload(view), callback);
+        } else {
+            remote.sendString(StandardCharsets.UTF_8.decode(view).toString(), callback);
+        }
+    }
+}
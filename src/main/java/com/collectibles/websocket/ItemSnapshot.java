@@ -0,0 +1,23 @@
+package com.collectibles.websocket;
+
+import com.collectibles.item.Item;
+import com.collectibles.offer.Offer;
+import java.util.List;
+
+/**
+ * Current state of an item sent to a client when it subscribes:
+ * the item itself and its highest offers.
+ */
+public class ItemSnapshot {
+
+    private final Item item;
+    private final List<Offer> offers;
+
+    public ItemSnapshot(Item item, List<Offer> offers) {
+        this.item = item;
+        this.offers = offers;
+    }
+
+    public Item getItem() { return item; }
+    public List<Offer> getOffers() { return offers; }
+}
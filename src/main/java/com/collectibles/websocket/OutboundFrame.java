@@ -0,0 +1,48 @@
+package com.collectibles.websocket;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A message queued for delivery to one or more sessions.
+ * The payload (JSON text or binary) is encoded once into a read-only buffer shared
+ * by every recipient. What is left per session is a buffer view, a frame object and
+ * its few header bytes (plus compression, if the client negotiated permessage-deflate).
+ * Frames with the same coalesce key supersede each other (e.g. prices of one item),
+ * frames without a key are always delivered.
+ */
+class OutboundFrame {
+
+    private final String coalesceKey;
+    private final ByteBuffer payload;
+    private final boolean binary;
+
+    private OutboundFrame(String coalesceKey, ByteBuffer payload, boolean binary) {
+        this.coalesceKey = coalesceKey;
+        this.payload = payload.asReadOnlyBuffer();
+        this.binary = binary;
+    }
+
+    /** A text frame; the string is encoded to UTF-8 here, once. */
+    static OutboundFrame text(String coalesceKey, String text) {
+        return new OutboundFrame(coalesceKey, ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), false);
+    }
+
+    /** A binary frame wrapping an already encoded payload. */
+    static OutboundFrame binary(String coalesceKey, ByteBuffer payload) {
+        return new OutboundFrame(coalesceKey, payload, true);
+    }
+
+    String getCoalesceKey() { return coalesceKey; }
+
+    void sendTo(RemoteEndpoint remote, WriteCallback callback) {
+        if (binary) {
+            // duplicate() shares the bytes but gives this send its own position
+            remote.sendBytes(payload.duplicate(), callback);
+        } else {
+            EncodedTextSender.send(remote, payload, callback);
+        }
+    }
+}
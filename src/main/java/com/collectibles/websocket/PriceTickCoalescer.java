@@ -0,0 +1,84 @@
+package com.collectibles.websocket;
+
+import com.collectibles.money.Money;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Latest-value-wins buffer for price ticks.
+ * Updates for the same item arriving within one tick interval collapse into
+ * the latest (highest) price, and only that one is fanned out when the tick fires.
+ * With an interval of 0 every update is published immediately.
+ */
+class PriceTickCoalescer {
+
+    private final Map<String, Money> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+    private final BiConsumer<String, Money> publisher;
+    private final long tickMillis;
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder published = new LongAdder();
+
+    /**
+     * @param executor Thread that runs the fan-out.
+     * @param tickMillis Tick interval in milliseconds (0 disables coalescing).
+     * @param publisher Sends one price update to the item's subscribers.
+     */
+    PriceTickCoalescer(ScheduledExecutorService executor, long tickMillis, BiConsumer<String, Money> publisher) {
+        this.executor = executor;
+        this.publisher = publisher;
+        this.tickMillis = Math.max(0, tickMillis);
+        if (this.tickMillis > 0) {
+            executor.scheduleAtFixedRate(this::flush, this.tickMillis, this.tickMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Records a new price for the item; returns without waiting for the fan-out.
+     */
+    void submit(String itemId, Money newPrice) {
+        received.increment();
+        if (tickMillis == 0) {
+            executor.execute(() -> publish(itemId, newPrice));
+            return;
+        }
+        // Prices only go up, so the highest one seen in this tick is the latest
+        pending.compute(itemId, (id, current) -> {
+            if (current == null) {
+                return newPrice;
+            }
+            coalesced.increment();
+            return Money.max(current, newPrice);
+        });
+    }
+
+    long getTickMillis() { return tickMillis; }
+    long getReceived() { return received.sum(); }
+    long getCoalesced() { return coalesced.sum(); }
+    long getPublished() { return published.sum(); }
+
+    private void flush() {
+        for (String itemId : pending.keySet()) {
+            Money price = pending.remove(itemId);
+            if (price != null) {
+                publish(itemId, price);
+            }
+        }
+    }
+
+    private void publish(String itemId, Money newPrice) {
+        try {
+            publisher.accept(itemId, newPrice);
+            published.increment();
+        } catch (RuntimeException e) {
+            // Never let one failure cancel the scheduled ticks
+            System.err.println("[WebSocket] Error publishing price update: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.collectibles.websocket;
+
+import com.collectibles.money.Money;
+import com.collectibles.utils.JsonUtil;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Encodes price updates in the two wire formats supported by the socket.
+ *
+ * JSON (default): {"type":"PRICE_UPDATE","itemId":"item1","seq":7,"newPrice":"120.50"}
+ *
+ * Binary (clients connecting with ?format=binary), 21 bytes, big-endian:
+ *   byte  type       (1 = price update)
+ *   int   itemIndex  (sent to the client in the SUBSCRIBED message)
+ *   long  seq        (per-item sequence number)
+ *   long  priceCents (price in fixed-point cents)
+ */
+final class PriceUpdateCodec {
+
+    static final byte TYPE_PRICE_UPDATE = 1;
+    static final int BINARY_FRAME_SIZE = 1 + Integer.BYTES + Long.BYTES + Long.BYTES;
+
+    private PriceUpdateCodec() {}
+
+    static String toJson(String itemId, long seq, Money newPrice) {
+        return JsonUtil.toJson(Map.of(
+            "type", "PRICE_UPDATE",
+            "itemId", itemId,
+            "seq", seq,
+            "newPrice", newPrice.toString() // Format as string
+        ));
+    }
+
+    static ByteBuffer toBinary(int itemIndex, long seq, Money newPrice) {
+        ByteBuffer buffer = ByteBuffer.allocate(BINARY_FRAME_SIZE);
+        buffer.put(TYPE_PRICE_UPDATE)
+              .putInt(itemIndex)
+              .putLong(seq)
+              .putLong(newPrice.getCents());
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -1,68 +1,395 @@
 package com.collectibles.websocket;
 
+import com.collectibles.metrics.LatencyHistogram;
+import com.collectibles.metrics.Metrics;
+import com.collectibles.money.Money;
+import com.collectibles.offer.Offer;
+import com.collectibles.utils.EnvConfig;
 import com.collectibles.utils.JsonUtil;
+import com.google.gson.JsonParseException;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketConnect;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
 
-import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Handles all WebSocket connections for real-time price updates.
+ * Clients subscribe to the items they are viewing, either with an
+ * {@code ?itemId=} query parameter on connect or by sending
+ * {@code {"type":"SUBSCRIBE","itemId":"..."}} (and {@code UNSUBSCRIBE}).
+ * Price ticks of an item are coalesced per tick interval (WS_TICK_INTERVAL_MS),
+ * then handed to a dedicated sender thread and written with
+ * async sends through each session's bounded {@link SessionOutbox}.
+ * Each update is encoded once per format and the same buffer is shared by all
+ * recipients. Clients connecting with {@code ?format=binary} receive the compact
+ * binary frames described in {@link PriceUpdateCodec}.
+ * Only existing items can be subscribed to (others get an {@code ERROR} message),
+ * at most WS_MAX_SUBSCRIPTIONS per session, and the per-item state is dropped
+ * when the last subscriber leaves.
  */
 @WebSocket
 public class PriceUpdateWebSocketHandler {
 
-    // A thread-safe map to store all connected client sessions
-    private static final Map<Session, Session> sessions = new ConcurrentHashMap<>();
+    private static final int SESSION_QUEUE_CAPACITY = EnvConfig.getInt("WS_SESSION_QUEUE_CAPACITY", 32);
+    // Each subscription costs a database lookup on the snapshot pool, so one session cannot queue many
+    private static final int MAX_SUBSCRIPTIONS = EnvConfig.getInt("WS_MAX_SUBSCRIPTIONS", 16);
+
+    // Thread-safe index of item ID -> outboxes of the sessions subscribed to it
+    private static final Map<String, Set<SessionOutbox>> subscribers = new ConcurrentHashMap<>();
+    // Connected sessions -> their outbound queue (which also tracks their subscriptions)
+    private static final Map<Session, SessionOutbox> sessions = new ConcurrentHashMap<>();
+
+    // Compact numeric index per watched item ID, used by the binary frames;
+    // indexes of items nobody watches any more are reused
+    private static final Map<String, Integer> itemIndexes = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextItemIndex = new AtomicInteger();
+    private static final Queue<Integer> freeItemIndexes = new ConcurrentLinkedQueue<>();
+    // Per-item sequence number of accepted offers while the item is watched: each OFFER
+    // delta takes the next value, snapshots and price frames carry the latest one
+    private static final Map<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+
+    // Time to encode one update and queue it on every subscriber (the sends complete asynchronously)
+    private static final LatencyHistogram PRICE_FANOUT_TIME = Metrics.timer("ws_broadcast_duration_seconds",
+        "Time to encode and queue one update for all subscribers of the item", "kind", "price");
+    private static final LatencyHistogram OFFER_FANOUT_TIME = Metrics.timer("ws_broadcast_duration_seconds",
+        "Time to encode and queue one update for all subscribers of the item", "kind", "offer");
+
+    private static final int SNAPSHOT_OFFERS = EnvConfig.getInt("WS_SNAPSHOT_OFFERS", 20);
+    private static volatile SnapshotProvider snapshotProvider;
+
+    // Fan-out runs here, so the bid request never waits on socket I/O
+    private static final ScheduledExecutorService broadcaster = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ws-broadcaster");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Snapshots need database reads, so they are loaded off the Jetty and broadcaster threads
+    private static final ExecutorService snapshotLoader = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "ws-snapshots");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Collapses the price ticks of an item within WS_TICK_INTERVAL_MS into the latest one
+    private static final PriceTickCoalescer priceTicks = new PriceTickCoalescer(
+        broadcaster, EnvConfig.getLong("WS_TICK_INTERVAL_MS", 50),
+        PriceUpdateWebSocketHandler::sendPriceUpdate);
 
     @OnWebSocketConnect
     public void onConnect(Session session) {
         System.out.println("[WebSocket] Client connected: " + session.getRemoteAddress());
-        // Add session to the map
-        sessions.put(session, session);
+        List<String> format = session.getUpgradeRequest().getParameterMap().get("format");
+        boolean binary = format != null && format.contains("binary");
+        sessions.put(session, new SessionOutbox(session, SESSION_QUEUE_CAPACITY, binary));
+
+        // Allow subscribing directly in the URL: /ws/price-updates?itemId=item1
+        List<String> itemIds = session.getUpgradeRequest().getParameterMap().get("itemId");
+        if (itemIds != null) {
+            itemIds.forEach(itemId -> subscribe(session, itemId));
+        }
     }
 
     @OnWebSocketClose
     public void onClose(Session session, int statusCode, String reason) {
         System.out.println("[WebSocket] Client disconnected: " + session.getRemoteAddress());
-        // Remove session from the map
-        sessions.remove(session);
+        // Remove session from the map and from every item it was subscribed to
+        SessionOutbox outbox = sessions.remove(session);
+        if (outbox != null) {
+            outbox.close();
+            outbox.getItemIds().forEach(itemId -> removeSubscriber(itemId, outbox));
+        }
     }
 
     @OnWebSocketMessage
     public void onMessage(Session session, String message) {
-        // We don't expect messages from clients, but we could handle them here
-        System.out.println("[WebSocket] Message received: " + message);
+        ClientMessage request;
+        try {
+            request = JsonUtil.fromJson(message, ClientMessage.class);
+        } catch (JsonParseException e) {
+            System.err.println("[WebSocket] Ignoring malformed message: " + message);
+            return;
+        }
+        if (request == null || request.type == null || request.itemId == null) {
+            System.err.println("[WebSocket] Ignoring message without type/itemId: " + message);
+            return;
+        }
+
+        switch (request.type) {
+            case "SUBSCRIBE":
+                subscribe(session, request.itemId);
+                break;
+            case "UNSUBSCRIBE":
+                unsubscribe(session, request.itemId);
+                break;
+            case "RESYNC":
+                // The client detected a gap in the OFFER sequence
+                SessionOutbox outbox = sessions.get(session);
+                if (outbox != null && outbox.getItemIds().contains(request.itemId)) {
+                    sendSnapshot(outbox, request.itemId);
+                }
+                break;
+            default:
+                System.err.println("[WebSocket] Unknown message type: " + request.type);
+        }
     }
 
     /**
-     * Broadcasts a price update to ALL connected clients.
+     * Broadcasts a price update to the clients subscribed to the item.
+     * Returns immediately: updates are coalesced per tick, then encoded and
+     * sent on the broadcaster thread.
      * @param itemId The ID of the item that was updated.
      * @param newPrice The new price.
      */
-    public static void broadcastPriceUpdate(String itemId, double newPrice) {
-        // Create the JSON message payload
-        Map<String, Object> message = Map.of(
-            "type", "PRICE_UPDATE",
-            "itemId", itemId,
-            "newPrice", String.format("%.2f", newPrice) // Format as string
-        );
-        String jsonMessage = JsonUtil.toJson(message);
+    public static void broadcastPriceUpdate(String itemId, Money newPrice) {
+        if (!subscribers.containsKey(itemId)) {
+            return; // Nobody is watching this item
+        }
+        priceTicks.submit(itemId, newPrice);
+    }
 
-        // Iterate over all connected sessions and send the message
-        for (Session session : sessions.keySet()) {
-            try {
-                if (session.isOpen()) {
-                    session.getRemote().sendString(jsonMessage);
+    /**
+     * Sends an accepted offer to the item's subscribers as a sequenced delta, so
+     * clients can update their offer list without refetching it.
+     * Returns immediately; deltas are never coalesced.
+     * @param offer The stored offer (with its generated id and timestamp).
+     */
+    public static void broadcastOffer(Offer offer) {
+        broadcaster.execute(() -> sendOffer(offer));
+    }
+
+    /**
+     * Sets the source of the snapshots sent when a client subscribes.
+     */
+    public static void setSnapshotProvider(SnapshotProvider provider) {
+        snapshotProvider = provider;
+    }
+
+    /**
+     * Returns counters of the broadcaster (sessions, coalesced and published updates).
+     */
+    public static BroadcastStats getStats() {
+        return new BroadcastStats(
+            sessions.size(),
+            subscribers.size(),
+            priceTicks.getTickMillis(),
+            priceTicks.getReceived(),
+            priceTicks.getCoalesced(),
+            priceTicks.getPublished());
+    }
+
+    private static void sendPriceUpdate(String itemId, Money newPrice) {
+        Set<SessionOutbox> itemSubscribers = subscribers.get(itemId);
+        if (itemSubscribers == null) {
+            return;
+        }
+        AtomicLong sequence = sequences.get(itemId);
+        Integer itemIndex = itemIndexes.get(itemId);
+        if (sequence == null || itemIndex == null) {
+            return; // The last subscriber just left
+        }
+        long start = System.nanoTime();
+        long seq = sequence.get();
+
+        // Encode at most once per format; a newer price for the same item
+        // replaces this one if it is still queued
+        OutboundFrame textFrame = null;
+        OutboundFrame binaryFrame = null;
+        for (SessionOutbox outbox : itemSubscribers) {
+            OutboundFrame frame;
+            if (outbox.isBinary()) {
+                if (binaryFrame == null) {
+                    binaryFrame = OutboundFrame.binary(itemId,
+                        PriceUpdateCodec.toBinary(itemIndex, seq, newPrice));
+                }
+                frame = binaryFrame;
+            } else {
+                if (textFrame == null) {
+                    textFrame = OutboundFrame.text(itemId, PriceUpdateCodec.toJson(itemId, seq, newPrice));
                 }
-            } catch (IOException e) {
-                System.err.println("Error broadcasting message: " + e.getMessage());
+                frame = textFrame;
+            }
+            offerTo(outbox, frame);
+        }
+        PRICE_FANOUT_TIME.recordSince(start);
+    }
+
+    private static void sendOffer(Offer offer) {
+        String itemId = offer.getItem_id();
+        AtomicLong sequence = sequences.get(itemId);
+        Set<SessionOutbox> itemSubscribers = subscribers.get(itemId);
+        if (sequence == null || itemSubscribers == null) {
+            return; // Nobody is watching: a new subscriber starts from a snapshot
+        }
+        long seq = sequence.incrementAndGet();
+        long start = System.nanoTime();
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", "OFFER");
+        message.put("itemId", itemId);
+        message.put("seq", seq);
+        message.put("offer", offer);
+        OutboundFrame frame = OutboundFrame.text(null, JsonUtil.toJson(message));
+
+        for (SessionOutbox outbox : itemSubscribers) {
+            offerTo(outbox, frame);
+        }
+        OFFER_FANOUT_TIME.recordSince(start);
+    }
+
+    /**
+     * Loads the item and its top offers and sends them to one session.
+     * The sequence is read before loading, so every later delta has a higher number
+     * (a delta already contained in the snapshot is skipped by the client by offer id).
+     */
+    private static void sendSnapshot(SessionOutbox outbox, String itemId) {
+        snapshotLoader.execute(() -> loadSnapshot(outbox, itemId));
+    }
+
+    private static void loadSnapshot(SessionOutbox outbox, String itemId) {
+        SnapshotProvider provider = snapshotProvider;
+        AtomicLong sequence = sequences.get(itemId);
+        if (provider == null || sequence == null) {
+            return; // No snapshots configured, or unsubscribed meanwhile
+        }
+        long seq = sequence.get();
+        try {
+            ItemSnapshot snapshot = provider.load(itemId, SNAPSHOT_OFFERS);
+            Map<String, Object> message = new LinkedHashMap<>();
+            message.put("type", "SNAPSHOT");
+            message.put("itemId", itemId);
+            message.put("seq", seq);
+            message.put("item", snapshot.getItem());
+            message.put("offers", snapshot.getOffers());
+            offerTo(outbox, OutboundFrame.text(null, JsonUtil.toJson(message)));
+        } catch (RuntimeException e) {
+            System.err.println("[WebSocket] Could not load snapshot of " + itemId + ": " + e.getMessage());
+        }
+    }
+
+    private static void offerTo(SessionOutbox outbox, OutboundFrame frame) {
+        if (!outbox.offer(frame) && !outbox.getSession().isOpen()) {
+            // Session closed concurrently with a subscribe: make sure it is not left behind
+            outbox.getItemIds().forEach(id -> removeSubscriber(id, outbox));
+        }
+    }
+
+    private static void subscribe(Session session, String itemId) {
+        SessionOutbox outbox = sessions.get(session);
+        if (outbox == null || outbox.getItemIds().contains(itemId)) {
+            return; // Closed session or already subscribed
+        }
+        // Lookups still queued count too, so subscribe/unsubscribe loops cannot flood the pool either
+        if (outbox.getItemIds().size() >= MAX_SUBSCRIPTIONS
+                || outbox.getPendingSubscriptions().get() >= MAX_SUBSCRIPTIONS) {
+            sendError(outbox, itemId, "Too many subscriptions");
+            return;
+        }
+        if (!outbox.getItemIds().add(itemId)) {
+            return;
+        }
+        outbox.getPendingSubscriptions().incrementAndGet();
+        // Checking that the item exists may read the database, so it runs off the Jetty thread
+        snapshotLoader.execute(() -> {
+            try {
+                completeSubscription(outbox, itemId);
+            } finally {
+                outbox.getPendingSubscriptions().decrementAndGet();
             }
+        });
+    }
+
+    private static void completeSubscription(SessionOutbox outbox, String itemId) {
+        SnapshotProvider provider = snapshotProvider;
+        boolean exists;
+        try {
+            exists = provider == null || provider.exists(itemId);
+        } catch (RuntimeException e) {
+            System.err.println("[WebSocket] Could not look up item " + itemId + ": " + e.getMessage());
+            exists = false;
+        }
+        if (!exists) {
+            outbox.getItemIds().remove(itemId);
+            sendError(outbox, itemId, "Item not found");
+            return;
+        }
+        int[] itemIndex = new int[1];
+        subscribers.compute(itemId, (id, set) -> {
+            if (!outbox.getItemIds().contains(id)) {
+                return set; // Unsubscribed while the item was looked up
+            }
+            Set<SessionOutbox> updated = set;
+            if (updated == null) {
+                // First subscriber: the item's index and sequence live as long as its subscribers
+                updated = ConcurrentHashMap.newKeySet();
+                Integer free = freeItemIndexes.poll();
+                itemIndexes.put(id, free != null ? free : nextItemIndex.incrementAndGet());
+                sequences.put(id, new AtomicLong());
+            }
+            updated.add(outbox);
+            itemIndex[0] = itemIndexes.get(id);
+            return updated;
+        });
+        if (itemIndex[0] == 0) {
+            return;
+        }
+
+        // Acknowledge with the item's index so binary clients can match frames to items,
+        // then send the current state; later changes arrive as sequenced deltas
+        offerTo(outbox, OutboundFrame.text(null, JsonUtil.toJson(Map.of(
+            "type", "SUBSCRIBED",
+            "itemId", itemId,
+            "itemIndex", itemIndex[0]))));
+        loadSnapshot(outbox, itemId);
+    }
+
+    private static void sendError(SessionOutbox outbox, String itemId, String error) {
+        outbox.offer(OutboundFrame.text(null, JsonUtil.toJson(Map.of(
+            "type", "ERROR",
+            "itemId", itemId,
+            "error", error))));
+    }
+
+    private static void unsubscribe(Session session, String itemId) {
+        SessionOutbox outbox = sessions.get(session);
+        if (outbox != null && outbox.getItemIds().remove(itemId)) {
+            removeSubscriber(itemId, outbox);
         }
     }
-}
\ No newline at end of file
+
+    private static void removeSubscriber(String itemId, SessionOutbox outbox) {
+        // Drop the item's entries entirely once its last subscriber leaves
+        subscribers.computeIfPresent(itemId, (id, set) -> {
+            set.remove(outbox);
+            if (!set.isEmpty()) {
+                return set;
+            }
+            sequences.remove(id);
+            Integer itemIndex = itemIndexes.remove(id);
+            if (itemIndex != null) {
+                freeItemIndexes.add(itemIndex);
+            }
+            return null;
+        });
+    }
+
+    /** Shape of the messages clients send over the socket. */
+    private static class ClientMessage {
+        private String type;
+        private String itemId;
+    }
+}
@@ -0,0 +1,131 @@
+package com.collectibles.websocket;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded outbound queue of one WebSocket session.
+ * Frames are written with Jetty's async send, one at a time, so a slow client
+ * never blocks the broadcaster or other sessions. A price frame replaces a stale
+ * queued frame for the same item; if the queue is still full the client is
+ * considered too slow and is disconnected (it will reload the state on reconnect).
+ */
+class SessionOutbox implements WriteCallback {
+
+    private final Session session;
+    private final int capacity;
+    private final boolean binary;
+    private final Set<String> itemIds = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pendingSubscriptions = new AtomicInteger();
+
+    // Guarded by "this"
+    private final ArrayDeque<OutboundFrame> pending = new ArrayDeque<>();
+    private boolean sending;
+    private boolean closed;
+
+    /**
+     * @param binary True if the client negotiated the compact binary price frames.
+     */
+    SessionOutbox(Session session, int capacity, boolean binary) {
+        this.session = session;
+        this.capacity = Math.max(1, capacity);
+        this.binary = binary;
+    }
+
+    Session getSession() { return session; }
+
+    boolean isBinary() { return binary; }
+
+    /** Item IDs this session is subscribed to. */
+    Set<String> getItemIds() { return itemIds; }
+
+    /** Subscriptions whose item lookup is still queued or running. */
+    AtomicInteger getPendingSubscriptions() { return pendingSubscriptions; }
+
+    /**
+     * Queues a frame for this session without blocking.
+     * @return false if the session is closed or could not keep up and was dropped.
+     */
+    boolean offer(OutboundFrame frame) {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (replaceStale(frame)) {
+                return true; // The in-flight chain will pick up the newer frame
+            }
+            if (pending.size() >= capacity) {
+                closed = true;
+                pending.clear();
+            } else {
+                pending.add(frame);
+                if (sending) {
+                    return true;
+                }
+                sending = true;
+            }
+        }
+        if (closed) {
+            System.err.println("[WebSocket] Dropping slow client: " + session.getRemoteAddress());
+            session.close(StatusCode.TRY_AGAIN_LATER, "Client too slow");
+            return false;
+        }
+        sendNext();
+        return true;
+    }
+
+    /** Marks the outbox closed and discards queued frames (session went away). */
+    synchronized void close() {
+        closed = true;
+        pending.clear();
+    }
+
+    @Override
+    public void writeSuccess() {
+        sendNext();
+    }
+
+    @Override
+    public void writeFailed(Throwable cause) {
+        System.err.println("[WebSocket] Error sending to " + session.getRemoteAddress() + ": " + cause.getMessage());
+        close();
+    }
+
+    /** Replaces a queued frame that the given one supersedes (same coalesce key). */
+    private boolean replaceStale(OutboundFrame frame) {
+        if (frame.getCoalesceKey() == null) {
+            return false;
+        }
+        for (Iterator<OutboundFrame> it = pending.iterator(); it.hasNext(); ) {
+            OutboundFrame queued = it.next();
+            if (frame.getCoalesceKey().equals(queued.getCoalesceKey())) {
+                it.remove();
+                pending.add(frame);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void sendNext() {
+        OutboundFrame next;
+        synchronized (this) {
+            next = closed ? null : pending.poll();
+            if (next == null) {
+                sending = false;
+                return;
+            }
+        }
+        if (!session.isOpen()) {
+            close();
+            return;
+        }
+        next.sendTo(session.getRemote(), this);
+    }
+}
@@ -0,0 +1,20 @@
+package com.collectibles.websocket;
+
+/**
+ * Loads the snapshot sent to a client when it subscribes to an item.
+ * Wired in App with the item and offer services.
+ */
+public interface SnapshotProvider {
+
+    /**
+     * Checked before a client may subscribe, so per-item state is only kept for real items.
+     * @param itemId The ID of the item.
+     */
+    boolean exists(String itemId);
+
+    /**
+     * @param itemId The ID of the item.
+     * @param offerLimit Maximum number of offers to include, highest first.
+     */
+    ItemSnapshot load(String itemId, int offerLimit);
+}
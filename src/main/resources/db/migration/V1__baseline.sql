@@ -1,5 +1,7 @@
 /*
  * Defines the database schema for the Collector's Vault project.
+ * Baseline: the schema as it was before versioned migrations
+ * (idempotent, so databases created back then are adopted as they are).
  */
 
 -- Table for Items (Products)
@@ -0,0 +1,9 @@
+/*
+ * Highest accepted bid per item (NULL until the first bid).
+ * A bid is accepted by one guarded UPDATE of this column, atomically under concurrency.
+ */
+ALTER TABLE items ADD COLUMN IF NOT EXISTS high_bid NUMERIC;
+
+-- Fill it in for databases created before the column existed
+UPDATE items SET high_bid = (SELECT MAX(o.amount) FROM offers o WHERE o.item_id = items.id)
+WHERE high_bid IS NULL AND EXISTS (SELECT 1 FROM offers o WHERE o.item_id = items.id);
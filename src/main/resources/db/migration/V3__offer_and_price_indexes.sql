@@ -0,0 +1,15 @@
+/*
+ * Indexes matching the offer and price queries, so they read rows in order
+ * instead of sorting, however much bid history accumulates.
+ */
+
+-- Offers of one item, highest first (offer lists, per-item ranking, top offers of an item).
+-- Also serves lookups by item_id alone, which made the old single-column index redundant.
+CREATE INDEX IF NOT EXISTS idx_offers_item_amount ON offers (item_id, amount DESC);
+DROP INDEX IF EXISTS idx_offers_item_id;
+
+-- Highest offers across all items (ranking seed: ORDER BY amount DESC LIMIT n)
+CREATE INDEX IF NOT EXISTS idx_offers_amount ON offers (amount DESC);
+
+-- Items by price (price range filters and cheapest-first listings)
+CREATE INDEX IF NOT EXISTS idx_items_price ON items (price);
@@ -0,0 +1,87 @@
+/*
+ * PostgreSQL only, applied when DB_PARTITION_OFFERS=true.
+ * Turns offers into a table partitioned by month of created_at, so the indexes
+ * of the months being bid on stay small, and old months can be detached and
+ * archived without a DELETE. Existing rows are copied into the new table.
+ */
+
+-- Partitioned replacement; the primary key must include the partition key
+CREATE TABLE offers_partitioned (
+    offer_id INTEGER NOT NULL DEFAULT nextval('offers_offer_id_seq'),
+    item_id VARCHAR(50) NOT NULL REFERENCES items(id),
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    amount NUMERIC NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (offer_id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Rows outside every monthly partition (e.g. months not created yet) land here
+CREATE TABLE offers_default PARTITION OF offers_partitioned DEFAULT;
+
+/*
+ * Creates the monthly partitions from the month of the oldest offer
+ * (or the current month) up to months_ahead months from now.
+ */
+CREATE OR REPLACE FUNCTION create_offer_partitions(months_ahead INTEGER) RETURNS VOID AS $$
+DECLARE
+    month_start DATE;
+    last_month DATE := date_trunc('month', now() + make_interval(months => months_ahead));
+    part TEXT;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(created_at), now())) INTO month_start FROM offers_default;
+    month_start := LEAST(month_start, date_trunc('month', now())::DATE);
+    WHILE month_start <= last_month LOOP
+        part := 'offers_' || to_char(month_start, 'YYYY_MM');
+        IF to_regclass(part) IS NULL THEN
+            -- Rows already in the default partition must move into the new one
+            EXECUTE format('CREATE TABLE %I (LIKE offers INCLUDING DEFAULTS)', part);
+            EXECUTE format('WITH moved AS (DELETE FROM offers_default WHERE created_at >= %L AND created_at < %L RETURNING *) '
+                        || 'INSERT INTO %I SELECT * FROM moved', month_start, month_start + INTERVAL '1 month', part);
+            EXECUTE format('ALTER TABLE offers ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                           part, month_start, month_start + INTERVAL '1 month');
+        END IF;
+        month_start := month_start + INTERVAL '1 month';
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+/*
+ * Archives the monthly partitions that ended before the given time:
+ * they are detached and moved to the "archive" schema, where they stay queryable.
+ * Their offers no longer appear in listings; items keep their price and high bid.
+ * Example: SELECT archive_offer_partitions(now() - INTERVAL '12 months');
+ */
+CREATE OR REPLACE FUNCTION archive_offer_partitions(before TIMESTAMP WITH TIME ZONE) RETURNS INTEGER AS $$
+DECLARE
+    part RECORD;
+    archived INTEGER := 0;
+BEGIN
+    CREATE SCHEMA IF NOT EXISTS archive;
+    FOR part IN
+        SELECT c.relname FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'offers'::regclass AND c.relname ~ '^offers_[0-9]{4}_[0-9]{2}$'
+    LOOP
+        IF to_date(substr(part.relname, 8), 'YYYY_MM') + INTERVAL '1 month' <= before THEN
+            EXECUTE format('ALTER TABLE offers DETACH PARTITION %I', part.relname);
+            EXECUTE format('ALTER TABLE %I SET SCHEMA archive', part.relname);
+            archived := archived + 1;
+        END IF;
+    END LOOP;
+    RETURN archived;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Swap the tables, keeping the ids and the offer id sequence
+INSERT INTO offers_partitioned SELECT offer_id, item_id, name, email, amount, COALESCE(created_at, now()) FROM offers;
+ALTER SEQUENCE offers_offer_id_seq OWNED BY NONE;
+DROP TABLE offers;
+ALTER TABLE offers_partitioned RENAME TO offers;
+ALTER SEQUENCE offers_offer_id_seq OWNED BY offers.offer_id;
+
+-- Same indexes as the plain table (V3), created on every partition
+CREATE INDEX idx_offers_item_amount ON offers (item_id, amount DESC);
+CREATE INDEX idx_offers_amount ON offers (amount DESC);
+
+SELECT create_offer_partitions(3);
@@ -1,7 +1,8 @@
 /*
  * item-detail-app.js
  * Main JavaScript application for the item detail page (Opción 3).
- * Handles fetching data, rendering the DOM, and WebSocket connection.
+ * Handles fetching data, rendering the DOM, and WebSocket connection
+ * (with a Server-Sent Events fallback).
  */
 
 /**
@@ -72,15 +73,75 @@ export async function loadItemData(itemId) {
 }
 
 /**
- * Connects to the price update WebSocket.
+ * Decodes a binary price update frame (see PriceUpdateCodec on the server).
+ * Layout (big-endian): type (1 byte), itemIndex (int32), seq (int64), priceCents (int64).
+ * @param {ArrayBuffer} buffer The binary frame.
+ * @returns {object | null} { itemIndex, seq, newPrice } or null if not a price update.
+ */
+export function decodePriceFrame(buffer) {
+    const view = new DataView(buffer);
+    if (view.byteLength < 21 || view.getUint8(0) !== 1) {
+        return null;
+    }
+    return {
+        itemIndex: view.getInt32(1),
+        seq: Number(view.getBigInt64(5)),
+        newPrice: Number(view.getBigInt64(13)) / 100
+    };
+}
+
+/**
+ * Applies an OFFER delta from the socket to the local offer list.
+ * Deltas are numbered per item; a gap means we missed one and must resync.
+ * @param {object} state { lastSeq, offers } - lastSeq is null until a snapshot arrives.
+ * @param {object} message The OFFER message ({ seq, offer }).
+ * @returns {string} "applied", "ignored" (old/duplicate or no snapshot yet) or "gap".
+ */
+export function applyOfferDelta(state, message) {
+    if (state.lastSeq === null || message.seq <= state.lastSeq) {
+        return "ignored";
+    }
+    if (message.seq !== state.lastSeq + 1) {
+        return "gap";
+    }
+    state.lastSeq = message.seq;
+    // The offer may already be part of the snapshot we received
+    if (!state.offers.some(offer => offer.offer_id === message.offer.offer_id)) {
+        state.offers = [message.offer, ...state.offers].sort((a, b) => b.amount - a.amount);
+    }
+    return "applied";
+}
+
+/**
+ * Connects to the price update WebSocket and subscribes to the item.
+ * Negotiates the compact binary price frames; JSON frames are still understood.
+ * Keeps the offer list current from the SNAPSHOT and OFFER messages.
  * @param {string} itemId The ID of the item to watch
  */
 export function connectWebSocket(itemId) {
     const protocol = window.location.protocol === "https" ? "wss" : "ws";
-    const socket = new WebSocket(`${protocol}://${window.location.host}/ws/price-updates`);
+    const socket = new WebSocket(`${protocol}://${window.location.host}/ws/price-updates?format=binary`);
+    socket.binaryType = "arraybuffer";
 
-    socket.onopen = () => console.log("[WebSocket] Connection established.");
-    socket.onclose = () => console.log("[WebSocket] Connection closed.");
+    // Index of our item in binary frames (sent by the server when we subscribe)
+    let itemIndex = null;
+    // Whether the socket ever opened (if not, a proxy is likely blocking WebSockets)
+    let opened = false;
+    // Offer list as of the last snapshot + deltas
+    const offerState = { lastSeq: null, offers: [] };
+
+    socket.onopen = () => {
+        console.log("[WebSocket] Connection established.");
+        opened = true;
+        // Only receive updates for the item on this page
+        socket.send(JSON.stringify({ type: "SUBSCRIBE", itemId: itemId }));
+    };
+    socket.onclose = () => {
+        console.log("[WebSocket] Connection closed.");
+        if (!opened && typeof EventSource !== "undefined") {
+            connectEventStream(itemId);
+        }
+    };
     socket.onerror = (err) => console.error("[WebSocket] Error:", err);
 
     /**
@@ -88,22 +149,98 @@ export function connectWebSocket(itemId) {
      * @param {MessageEvent} event The WebSocket message event.
      */
     socket.onmessage = (event) => {
+        if (event.data instanceof ArrayBuffer) {
+            const update = decodePriceFrame(event.data);
+            if (update && update.itemIndex === itemIndex) {
+                updatePriceDisplay(update.newPrice);
+            }
+            return;
+        }
+
         const message = JSON.parse(event.data);
+
+        if (message.type === "SUBSCRIBED" && message.itemId === itemId) {
+            itemIndex = message.itemIndex;
+        }
+
+        if (message.type === "SNAPSHOT" && message.itemId === itemId) {
+            offerState.lastSeq = message.seq;
+            offerState.offers = message.offers || [];
+            updateOfferList(offerState.offers);
+            if (message.item) updatePriceDisplay(message.item.price);
+        }
+
+        if (message.type === "OFFER" && message.itemId === itemId) {
+            const result = applyOfferDelta(offerState, message);
+            if (result === "applied") {
+                updateOfferList(offerState.offers);
+            } else if (result === "gap") {
+                // We missed an offer: ask for a fresh snapshot
+                offerState.lastSeq = null;
+                socket.send(JSON.stringify({ type: "RESYNC", itemId: itemId }));
+            }
+        }
         
         // Check if the update is for the item we are currently viewing
         if (message.type === "PRICE_UPDATE" && message.itemId === itemId) {
             console.log("[WebSocket] Price update received!", message);
-            
-            const priceEl = document.getElementById("price-display");
-            if (priceEl) {
-                // Format the new price and update the DOM
-                priceEl.textContent = formatCurrency(message.newPrice);
-            }
+            updatePriceDisplay(message.newPrice);
         }
     };
     return socket;
 }
 
+/**
+ * Fallback for clients that cannot open a WebSocket: listens to the item's
+ * Server-Sent Events stream. EventSource reconnects by itself and sends
+ * Last-Event-ID, so the server only replays the events we missed.
+ * @param {string} itemId The ID of the item to watch
+ */
+export function connectEventStream(itemId) {
+    const source = new EventSource(`/sse/price-updates/${encodeURIComponent(itemId)}`);
+    let offers = [];
+
+    source.addEventListener("snapshot", (event) => {
+        const message = JSON.parse(event.data);
+        offers = message.offers || [];
+        updateOfferList(offers);
+        if (message.item) updatePriceDisplay(message.item.price);
+    });
+
+    source.addEventListener("offer", (event) => {
+        const message = JSON.parse(event.data);
+        // The offer may already be part of the snapshot we received
+        if (!offers.some(offer => offer.offer_id === message.offer.offer_id)) {
+            offers = [message.offer, ...offers].sort((a, b) => b.amount - a.amount);
+            updateOfferList(offers);
+        }
+        if (message.newPrice !== undefined) updatePriceDisplay(message.newPrice);
+    });
+
+    source.onerror = () => console.log("[SSE] Connection lost, reconnecting...");
+    return source;
+}
+
+/**
+ * Re-renders the offer list in the DOM.
+ * @param {Array} offers The offers, highest first.
+ */
+function updateOfferList(offers) {
+    const offersContainer = document.getElementById('offers-container');
+    if (offersContainer) offersContainer.innerHTML = renderOfferList(offers);
+}
+
+/**
+ * Formats the new price and updates the DOM.
+ * @param {number | string} newPrice The new price.
+ */
+function updatePriceDisplay(newPrice) {
+    const priceEl = document.getElementById("price-display");
+    if (priceEl) {
+        priceEl.textContent = formatCurrency(newPrice);
+    }
+}
+
 
 // --- MODULE: Rendering ---
 
@@ -197,8 +334,8 @@ export function renderOfferList(offers) {
 
 /**
  * Attaches the 'submit' event listener to the offer form.
- * Handles the form submission via fetch, provides user feedback,
- * and refreshes the offer list.
+ * Handles the form submission via fetch and provides user feedback.
+ * The offer list itself is updated by the WebSocket deltas.
  * @param {string} itemId The ID of the item this form is for.
  */
 export function attachFormListener(itemId) {
@@ -224,20 +361,13 @@ export function attachFormListener(itemId) {
                 throw new Error(errData.error || "Submission failed");
             }
 
-            // 3. Handle success
-            const result = await response.json();
+            // 3. Handle success (the new offer reaches the list as a WebSocket delta)
+            await response.json();
             if (formMessage) formMessage.textContent = 'Offer submitted successfully!';
             form.reset();
-            
-            // 4. Manually refresh the offer list to show the new one
-            const offersRes = await fetch(`/api/offers/${itemId}`);
-            const offers = await offersRes.json();
-            
-            const offersContainer = document.getElementById('offers-container');
-            if (offersContainer) offersContainer.innerHTML = renderOfferList(offers);
 
         } catch (error) {
-            // 5. Handle all errors (network, 400, 500)
+            // 4. Handle all errors (network, 400, 500)
             if (formMessage) {
                 formMessage.textContent = `Error: ${error.message}`;
                 formMessage.style.color = '#d9534f';
@@ -133,14 +133,11 @@ describe('Item Detail App (Frontend)', () => {
             `;
         });
 
-        test('should submit form data and refresh offer list on success', async () => {
+        test('should submit form data without refetching the offer list on success', async () => {
             const form = document.getElementById('offer-form');
             const formMessage = document.getElementById('form-message');
-            const offersContainer = document.getElementById('offers-container');
-            const newOffers = [{ amount: 150, name: 'Test Bidder', email: 'test@test.com' }];
 
             fetch.mockImplementation((url) => {
-                if (url.includes('/api/offers/')) return Promise.resolve({ ok: true, json: () => Promise.resolve(newOffers) });
                 if (url.includes('/offer')) return Promise.resolve({ ok: true, json: () => Promise.resolve({ success: true }) });
             });
 
@@ -148,7 +145,8 @@ describe('Item Detail App (Frontend)', () => {
             form.dispatchEvent(new Event('submit', { bubbles: true, cancelable: true }));
             await new Promise(resolve => setTimeout(resolve, 0));
 
-            expect(fetch).toHaveBeenCalledTimes(2);
+            // The list is updated by the WebSocket OFFER delta instead
+            expect(fetch).toHaveBeenCalledTimes(1);
             expect(formMessage.textContent).toBe('Offer submitted successfully!');
         });
 
@@ -193,6 +191,13 @@ describe('Item Detail App (Frontend)', () => {
             expect(global.WebSocket).toHaveBeenCalledWith(expect.stringContaining('ws://localhost/ws/price-updates'));
         });
 
+        test('should subscribe to the item when the socket opens', () => {
+            app.connectWebSocket('item1');
+            global.mockSocketInstance.onopen();
+            expect(global.mockSocketInstance.send).toHaveBeenCalledWith(
+                JSON.stringify({ type: 'SUBSCRIBE', itemId: 'item1' }));
+        });
+
         test('should update price DOM when the correct message is received', () => {
             const priceEl = document.getElementById('price-display');
             expect(priceEl.textContent).toBe('100.00 USD');
@@ -213,6 +218,59 @@ describe('Item Detail App (Frontend)', () => {
             expect(priceEl.textContent).toBe('100.00 USD');
         });
 
+        // Builds a binary price frame: type, itemIndex, seq, priceCents
+        const binaryFrame = (itemIndex, seq, priceCents) => {
+            const buffer = new ArrayBuffer(21);
+            const view = new DataView(buffer);
+            view.setUint8(0, 1);
+            view.setInt32(1, itemIndex);
+            view.setBigInt64(5, BigInt(seq));
+            view.setBigInt64(13, BigInt(priceCents));
+            return buffer;
+        };
+
+        test('should decode a binary price frame', () => {
+            const update = app.decodePriceFrame(binaryFrame(3, 7, 12050));
+            expect(update).toEqual({ itemIndex: 3, seq: 7, newPrice: 120.5 });
+        });
+
+        test('should update price DOM from a binary frame for the subscribed item', () => {
+            const priceEl = document.getElementById('price-display');
+            app.connectWebSocket('item1');
+            global.mockSocketInstance.onmessage({ data: JSON.stringify({ type: 'SUBSCRIBED', itemId: 'item1', itemIndex: 3 }) });
+            global.mockSocketInstance.onmessage({ data: binaryFrame(4, 1, 50000) });
+            expect(priceEl.textContent).toBe('100.00 USD');
+            global.mockSocketInstance.onmessage({ data: binaryFrame(3, 1, 99900) });
+            expect(priceEl.textContent).toBe('$999.00');
+        });
+
+        test('should render the offer list from a snapshot and apply the next delta', () => {
+            document.body.innerHTML = `<span id="price-display"></span><div id="offers-container"></div>`;
+            app.connectWebSocket('item1');
+            const send = (message) => global.mockSocketInstance.onmessage({ data: JSON.stringify(message) });
+
+            send({ type: 'SNAPSHOT', itemId: 'item1', seq: 4, item: { price: 100 },
+                   offers: [{ offer_id: 1, amount: 100, name: 'User A', email: 'a@test.com' }] });
+            send({ type: 'OFFER', itemId: 'item1', seq: 5,
+                   offer: { offer_id: 2, amount: 150, name: 'User B', email: 'b@test.com' } });
+
+            const offers = document.getElementById('offers-container');
+            expect(offers.innerHTML).toContain('$150.00');
+            expect(offers.innerHTML).toContain('$100.00');
+            expect(document.getElementById('price-display').textContent).toBe('$100.00');
+        });
+
+        test('should request a resync when an offer delta is missing', () => {
+            app.connectWebSocket('item1');
+            const send = (message) => global.mockSocketInstance.onmessage({ data: JSON.stringify(message) });
+
+            send({ type: 'SNAPSHOT', itemId: 'item1', seq: 4, offers: [] });
+            send({ type: 'OFFER', itemId: 'item1', seq: 6, offer: { offer_id: 3, amount: 200 } });
+
+            expect(global.mockSocketInstance.send).toHaveBeenCalledWith(
+                JSON.stringify({ type: 'RESYNC', itemId: 'item1' }));
+        });
+
         test('should log an error when the socket connection fails', () => {
             const consoleErrorMock = jest.spyOn(console, 'error').mockImplementation(() => {});
             app.connectWebSocket('item1');
@@ -221,9 +279,56 @@ describe('Item Detail App (Frontend)', () => {
             expect(consoleErrorMock).toHaveBeenCalledWith("[WebSocket] Error:", new Error("Connection Failed"));
             consoleErrorMock.mockRestore();
         });
+        test('should fall back to Server-Sent Events if the socket never opens', () => {
+            app.connectWebSocket('item1');
+            global.mockSocketInstance.onclose();
+            expect(global.EventSource).toHaveBeenCalledWith('/sse/price-updates/item1');
+        });
+
+        test('should not fall back to Server-Sent Events after the socket was open', () => {
+            app.connectWebSocket('item1');
+            global.mockSocketInstance.onopen();
+            global.mockSocketInstance.onclose();
+            expect(global.EventSource).not.toHaveBeenCalled();
+        });
+
+        test('should apply snapshot and offer events from the event stream', () => {
+            document.body.innerHTML = `<span id="price-display"></span><div id="offers-container"></div>`;
+            app.connectEventStream('item1');
+            const emit = (type, data) => global.mockEventSourceInstance.listeners[type]({ data: JSON.stringify(data) });
+
+            emit('snapshot', { itemId: 'item1', item: { price: 100 },
+                               offers: [{ offer_id: 1, amount: 100, name: 'User A', email: 'a@test.com' }] });
+            emit('offer', { itemId: 'item1', newPrice: '150.00',
+                            offer: { offer_id: 2, amount: 150, name: 'User B', email: 'b@test.com' } });
+
+            const offers = document.getElementById('offers-container');
+            expect(offers.innerHTML).toContain('$150.00');
+            expect(offers.innerHTML).toContain('$100.00');
+            expect(document.getElementById('price-display').textContent).toBe('$150.00');
+        });
+    });
+
+    // --- Suite 6: applyOfferDelta (Pure Function) ---
+    describe('applyOfferDelta', () => {
+        test('should ignore deltas until a snapshot arrives', () => {
+            const state = { lastSeq: null, offers: [] };
+            expect(app.applyOfferDelta(state, { seq: 1, offer: { offer_id: 1, amount: 10 } })).toBe('ignored');
+            expect(state.offers).toEqual([]);
+        });
+        test('should skip an offer already contained in the snapshot', () => {
+            const state = { lastSeq: 1, offers: [{ offer_id: 7, amount: 10 }] };
+            expect(app.applyOfferDelta(state, { seq: 2, offer: { offer_id: 7, amount: 10 } })).toBe('applied');
+            expect(state.offers).toHaveLength(1);
+            expect(state.lastSeq).toBe(2);
+        });
+        test('should report a gap in the sequence', () => {
+            const state = { lastSeq: 1, offers: [] };
+            expect(app.applyOfferDelta(state, { seq: 3, offer: { offer_id: 9, amount: 10 } })).toBe('gap');
+        });
     });
 
-    // --- Suite 6: init (Main Function) - NEW TESTS ---
+    // --- Suite 7: init (Main Function) - NEW TESTS ---
     describe('init (Main Function)', () => {
         
         // We must spy on the *module* itself
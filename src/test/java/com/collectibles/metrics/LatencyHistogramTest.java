@@ -0,0 +1,51 @@
+package com.collectibles.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void reportsPercentilesWithinThePrecision() {
+        for (int bits : new int[] {4, 6}) {
+            LatencyHistogram histogram = new LatencyHistogram(bits);
+            for (long nanos = 1; nanos <= 1_000_000; nanos++) {
+                histogram.record(nanos);
+            }
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            double error = 1.0 / (1 << bits);
+            for (double q : new double[] {0.5, 0.99, 0.999}) {
+                long expected = (long) Math.ceil(q * 1_000_000);
+                long reported = snapshot.percentileNanos(q);
+                assertTrue(reported >= expected && reported <= expected * (1 + error),
+                    "p" + q + " with " + bits + " bits: " + reported + " for " + expected);
+            }
+            assertEquals(1_000_000, snapshot.getCount());
+            assertEquals(1_000_000, snapshot.getMaxNanos());
+        }
+    }
+
+    @Test
+    void valuesBelowTheSubBucketsAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram(6);
+        histogram.record(63);
+        histogram.record(-5);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.percentileNanos(0.5));
+        assertEquals(63, snapshot.percentileNanos(1.0));
+        assertEquals(1, snapshot.countAtMost(62));
+    }
+
+    @Test
+    void bucketsCoverTheWholeLongRange() {
+        for (int bits : new int[] {1, 4, 6, 10}) {
+            int last = LatencyHistogram.bucketOf(Long.MAX_VALUE, bits);
+            assertTrue(last < LatencyHistogram.bucketCount(bits));
+            assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(last, bits));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram(0));
+    }
+}
@@ -0,0 +1,93 @@
+package com.collectibles.money;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    @Test
+    void parsesWholeAndDecimalAmounts() {
+        assertEquals(12000, Money.parse("120").getCents());
+        assertEquals(12050, Money.parse("120.5").getCents());
+        assertEquals(12050, Money.parse(" 120.50 ").getCents());
+        assertEquals(12050, Money.parse("1.205e2").getCents());
+        assertEquals(Money.ZERO, Money.parse("0.00"));
+    }
+
+    @Test
+    void parsesNegativeAmounts() {
+        assertEquals(-150, Money.parse("-1.5").getCents());
+    }
+
+    @Test
+    void rejectsFractionsOfACent() {
+        assertThrows(NumberFormatException.class, () -> Money.parse("1.005"));
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThrows(NumberFormatException.class, () -> Money.parse(null));
+        assertThrows(NumberFormatException.class, () -> Money.parse(""));
+        assertThrows(NumberFormatException.class, () -> Money.parse("abc"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("1".repeat(41)));
+    }
+
+    @Test
+    void rejectsAmountsBeyondLongCents() {
+        assertEquals(Long.MAX_VALUE, Money.parse("92233720368547758.07").getCents());
+        assertThrows(NumberFormatException.class, () -> Money.parse("92233720368547758.08"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("1e17"));
+    }
+
+    @Test
+    void rejectsHugeExponentsWithoutScalingThem() {
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            assertThrows(NumberFormatException.class, () -> Money.parse("1e100000000"));
+            assertThrows(NumberFormatException.class, () -> Money.parse("1e-100000000"));
+            assertThrows(NumberFormatException.class, () -> Money.parseDecimal("-1e2147483647"));
+        });
+    }
+
+    @Test
+    void parseDecimalKeepsTheValueUnscaled() {
+        assertEquals(new BigDecimal("1.5E+3"), Money.parseDecimal("1.5e3"));
+        assertEquals(new BigDecimal("0.001"), Money.parseDecimal("0.001"));
+    }
+
+    @Test
+    void formatsAsUsCurrency() {
+        assertEquals("$0.00", Money.ZERO.format());
+        assertEquals("$0.05", Money.ofCents(5).format());
+        assertEquals("$1,234.50", Money.ofCents(123450).format());
+        assertEquals("$1,000,000.00", Money.ofCents(100_000_000).format());
+        assertEquals("-$1,234.50", Money.ofCents(-123450).format());
+    }
+
+    @Test
+    void printsPlainDecimals() {
+        assertEquals("0.00", Money.ZERO.toString());
+        assertEquals("1234.50", Money.ofCents(123450).toString());
+        assertEquals("-0.05", Money.ofCents(-5).toString());
+    }
+
+    @Test
+    void handlesTheLongExtremes() {
+        assertEquals("92233720368547758.07", Money.ofCents(Long.MAX_VALUE).toString());
+        assertEquals("-92233720368547758.08", Money.ofCents(Long.MIN_VALUE).toString());
+        assertEquals("-$92,233,720,368,547,758.08", Money.ofCents(Long.MIN_VALUE).format());
+        assertEquals(Long.MIN_VALUE, Money.parse("-92233720368547758.08").getCents());
+    }
+
+    @Test
+    void convertsToAndFromBigDecimal() {
+        assertEquals(new BigDecimal("120.50"), Money.ofCents(12050).toBigDecimal());
+        assertEquals(12051, Money.of(new BigDecimal("120.505")).getCents());
+        assertTrue(Money.ofCents(2).isGreaterThan(Money.ofCents(1)));
+    }
+}
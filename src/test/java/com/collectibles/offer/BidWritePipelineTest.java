@@ -0,0 +1,175 @@
+package com.collectibles.offer;
+
+import com.collectibles.database.DatabaseConfig;
+import com.collectibles.database.DatabaseService;
+import com.collectibles.exception.InvalidOfferException;
+import com.collectibles.money.Money;
+import org.jdbi.v3.core.Jdbi;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The guarded update of items.high_bid is what keeps bids exact, so these tests
+ * run the pipeline against a real (H2) database with concurrent bids.
+ */
+class BidWritePipelineTest {
+
+    private static final String ITEM = "item1";
+
+    private DatabaseService database;
+    private Jdbi jdbi;
+
+    @BeforeEach
+    void openDatabase() {
+        String url = "jdbc:h2:mem:bids-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+        database = new DatabaseService(new DatabaseConfig(url, "sa", "", 8, 1, 5_000, 30 * 60_000, null));
+        jdbi = database.getJdbi();
+        jdbi.useHandle(handle -> handle.execute(
+            "INSERT INTO items (id, name, description, price, imageUrl) VALUES (?, 'Item', '', 10.00, '')", ITEM));
+    }
+
+    @AfterEach
+    void closeDatabase() {
+        database.close();
+    }
+
+    @Test
+    void storesOnlyStrictlyIncreasingBidsAcrossBatches() throws Exception {
+        BidWritePipeline pipeline = new BidWritePipeline(jdbi, 4, 1, 1_000);
+        try {
+            // Every amount is bid three times, in random order, by 16 threads
+            List<Long> amounts = new ArrayList<>();
+            for (long cents = 1_000; cents < 1_200; cents++) {
+                amounts.add(cents);
+                amounts.add(cents);
+                amounts.add(cents);
+            }
+            Collections.shuffle(amounts);
+            List<Boolean> results = writeConcurrently(pipeline, amounts, 16);
+
+            List<Long> stored = storedAmounts();
+            long accepted = results.stream().filter(Boolean::booleanValue).count();
+            assertEquals(accepted, stored.size());
+            assertFalse(stored.isEmpty());
+            for (int i = 1; i < stored.size(); i++) {
+                assertTrue(stored.get(i) > stored.get(i - 1),
+                    "Offer " + stored.get(i) + " stored after " + stored.get(i - 1));
+            }
+            long highest = stored.get(stored.size() - 1);
+            assertEquals(1_199, highest);
+            assertEquals(Money.ofCents(highest), highBid());
+            assertEquals(Money.ofCents(highest), price());
+        } finally {
+            pipeline.close();
+        }
+    }
+
+    @Test
+    void acceptsOneOfEqualBidsInTheSameBatch() throws Exception {
+        // Long wait, so all bids are committed together
+        BidWritePipeline pipeline = new BidWritePipeline(jdbi, 64, 200, 1_000);
+        try {
+            List<Boolean> results = writeConcurrently(pipeline, List.of(500L, 500L, 500L, 500L, 500L), 5);
+
+            assertEquals(1, results.stream().filter(Boolean::booleanValue).count());
+            assertEquals(List.of(500L), storedAmounts());
+            assertEquals(Money.ofCents(500), highBid());
+        } finally {
+            pipeline.close();
+        }
+    }
+
+    @Test
+    void rejectsLowerAndEqualBidsInLaterBatches() {
+        BidWritePipeline pipeline = new BidWritePipeline(jdbi, 64, 0, 1_000);
+        try {
+            assertTrue(pipeline.write(offer(500)));
+            assertFalse(pipeline.write(offer(500)));
+            assertFalse(pipeline.write(offer(499)));
+            assertTrue(pipeline.write(offer(501)));
+            assertEquals(List.of(500L, 501L), storedAmounts());
+        } finally {
+            pipeline.close();
+        }
+    }
+
+    @Test
+    void rejectedBidReportsTheDatabaseHighBid() throws Exception {
+        // Two servers on one database: each has its own in-memory high-bid book
+        OfferService serverA = new OfferService(jdbi);
+        OfferService serverB = new OfferService(jdbi);
+
+        serverB.addOffer(offer(100));
+        serverA.addOffer(offer(500));
+
+        // B's book still holds 1.00, so only the database can reject this bid
+        InvalidOfferException rejected = assertThrows(InvalidOfferException.class,
+            () -> serverB.addOffer(offer(300)));
+        assertEquals("Offer must be higher than the current max bid of $5.00", rejected.getMessage());
+        // ...and B's book has caught up with it
+        assertThrows(InvalidOfferException.class, () -> serverB.addOffer(offer(400)));
+        serverB.addOffer(offer(600));
+
+        assertEquals(List.of(100L, 500L, 600L), storedAmounts());
+        assertEquals(Money.ofCents(600), highBid());
+    }
+
+    private List<Boolean> writeConcurrently(BidWritePipeline pipeline, List<Long> amounts, int threads)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (long cents : amounts) {
+                Callable<Boolean> bid = () -> {
+                    start.await();
+                    return pipeline.write(offer(cents));
+                };
+                futures.add(executor.submit(bid));
+            }
+            start.countDown();
+            List<Boolean> results = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Offer offer(long cents) {
+        return new Offer("Bidder", "bidder@example.com", ITEM, Money.ofCents(cents));
+    }
+
+    /** Stored offer amounts in cents, in the order they were inserted. */
+    private List<Long> storedAmounts() {
+        return jdbi.withHandle(handle -> handle.createQuery("SELECT amount FROM offers ORDER BY offer_id")
+            .mapTo(Money.class).map(Money::getCents).list());
+    }
+
+    private Money highBid() {
+        return jdbi.withHandle(handle -> handle.createQuery("SELECT high_bid FROM items WHERE id = :id")
+            .bind("id", ITEM).mapTo(Money.class).one());
+    }
+
+    private Money price() {
+        return jdbi.withHandle(handle -> handle.createQuery("SELECT price FROM items WHERE id = :id")
+            .bind("id", ITEM).mapTo(Money.class).one());
+    }
+}
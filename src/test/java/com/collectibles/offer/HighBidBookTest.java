@@ -0,0 +1,90 @@
+package com.collectibles.offer;
+
+import com.collectibles.exception.NotFoundException;
+import com.collectibles.money.Money;
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HighBidBookTest {
+
+    // Stands in for items.high_bid
+    private final Map<String, Long> database = new HashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final HighBidBook book = new HighBidBook(itemId -> {
+        loads.incrementAndGet();
+        Long highBid = database.get(itemId);
+        if (highBid == null) {
+            throw new NotFoundException("Item not found: " + itemId);
+        }
+        return highBid;
+    });
+
+    @Test
+    void acceptsOnlyHigherBids() {
+        database.put("item1", HighBidBook.NO_BIDS);
+        assertNull(book.getHighBid("item1"));
+        assertTrue(book.tryRaise("item1", Money.ofCents(100)));
+        assertFalse(book.tryRaise("item1", Money.ofCents(100)));
+        assertFalse(book.tryRaise("item1", Money.ofCents(99)));
+        assertTrue(book.tryRaise("item1", Money.ofCents(101)));
+        assertEquals(Money.ofCents(101), book.getHighBid("item1"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void keepsNoEntryForUnknownItems() {
+        assertThrows(NotFoundException.class, () -> book.tryRaise("nope", Money.ofCents(100)));
+        assertThrows(NotFoundException.class, () -> book.tryRaise("nope", Money.ofCents(100)));
+        // Looked up again each time: nothing was cached for it
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void rollBackRestoresTheStoredBid() {
+        database.put("item1", 100L);
+        assertTrue(book.tryRaise("item1", Money.ofCents(150)));
+        book.rollBack("item1", Money.ofCents(150));
+        assertEquals(Money.ofCents(100), book.getHighBid("item1"));
+    }
+
+    @Test
+    void rollBackKeepsALaterBidInFlight() {
+        database.put("item1", 100L);
+        assertTrue(book.tryRaise("item1", Money.ofCents(150)));
+        assertTrue(book.tryRaise("item1", Money.ofCents(200)));
+        book.rollBack("item1", Money.ofCents(150));
+        // 200 is not stored yet, but lower bids must still be rejected until it is
+        assertFalse(book.tryRaise("item1", Money.ofCents(180)));
+        assertEquals(Money.ofCents(200), book.getHighBid("item1"));
+    }
+
+    @Test
+    void refreshOnlyRaisesTheEntry() {
+        database.put("item1", 100L);
+        assertTrue(book.tryRaise("item1", Money.ofCents(150)));
+        database.put("item1", 300L); // Bid placed through another server
+        assertEquals(Money.ofCents(300), book.refresh("item1"));
+        assertFalse(book.tryRaise("item1", Money.ofCents(250)));
+
+        database.put("item1", 200L);
+        assertEquals(Money.ofCents(200), book.refresh("item1"));
+        assertEquals(Money.ofCents(300), book.getHighBid("item1"));
+    }
+
+    @Test
+    void refreshDropsDeletedItems() {
+        database.put("item1", 100L);
+        book.getHighBid("item1");
+        database.remove("item1");
+        assertThrows(NotFoundException.class, () -> book.refresh("item1"));
+        assertThrows(NotFoundException.class, () -> book.getHighBid("item1"));
+    }
+}
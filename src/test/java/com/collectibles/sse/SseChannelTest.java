@@ -0,0 +1,122 @@
+package com.collectibles.sse;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SseChannelTest {
+
+    private final SseChannel channel = new SseChannel("item1", "boot", 4);
+
+    @Test
+    void resumeReplaysOnlyTheMissedEvents() {
+        publish(3);
+        SseClient client = mock(SseClient.class);
+        assertTrue(channel.resume(client, 1));
+        assertEquals(List.of("offer 2", "offer 3"), sent(client));
+        assertTrue(channel.getClients().contains(client));
+    }
+
+    @Test
+    void resumeFailsOnceTheMissedEventsAreEvicted() {
+        publish(6);
+        SseClient client = mock(SseClient.class);
+        assertFalse(channel.resume(client, 1));
+        verify(client, never()).send(any());
+        assertFalse(channel.getClients().contains(client));
+    }
+
+    @Test
+    void attachReplaysTheEventsPublishedDuringTheSnapshot() {
+        publish(1);
+        long snapshotId = channel.getLastId();
+        publish(2);
+        SseClient client = mock(SseClient.class);
+        assertTrue(channel.attach(client, "{}", snapshotId));
+        assertEquals(List.of("snapshot {}", "offer 2", "offer 3"), sent(client));
+    }
+
+    @Test
+    void attachRefusesASnapshotTheStreamHasOutrun() {
+        long snapshotId = channel.getLastId();
+        publish(5); // More than the 4 buffered events
+        SseClient client = mock(SseClient.class);
+        assertFalse(channel.attach(client, "{}", snapshotId));
+        verify(client, never()).send(any());
+        assertFalse(channel.getClients().contains(client));
+    }
+
+    @Test
+    void onlyAcceptsIdsOfThisStream() {
+        publish(3);
+        assertEquals(2, channel.eventNumber("boot-2"));
+        // Same position, issued by an earlier run (or another server)
+        assertEquals(-1, channel.eventNumber("other-2"));
+        assertEquals(-1, channel.eventNumber("2"));
+        assertEquals(-1, channel.eventNumber("boot-x"));
+        assertEquals(-1, channel.eventNumber(null));
+    }
+
+    @Test
+    void eventIdsCarryTheEpoch() {
+        SseClient client = mock(SseClient.class);
+        assertTrue(channel.resume(client, 0));
+        channel.publish("offer", "{}");
+        ArgumentCaptor<byte[]> event = ArgumentCaptor.forClass(byte[].class);
+        verify(client).send(event.capture());
+        assertTrue(new String(event.getValue(), StandardCharsets.UTF_8).startsWith("id: boot-1\n"));
+    }
+
+    @Test
+    void isIdleOnlyOnceTheLastHolderLeftLongEnough() {
+        SseClient first = mock(SseClient.class);
+        SseClient second = mock(SseClient.class);
+        channel.hold();
+        channel.hold();
+        assertTrue(channel.resume(first, 0));
+        assertFalse(channel.isIdle(Long.MAX_VALUE, 0));
+
+        channel.detach(first);
+        assertFalse(channel.isIdle(Long.MAX_VALUE, 0)); // Second is still loading its snapshot
+        channel.detach(second);
+        long now = System.nanoTime();
+        assertTrue(channel.isIdle(now, 0));
+        assertFalse(channel.isIdle(now, TimeUnit.MINUTES.toNanos(1)));
+        assertTrue(channel.getClients().isEmpty());
+    }
+
+    private void publish(int events) {
+        for (int i = 0; i < events; i++) {
+            long next = channel.getLastId() + 1;
+            channel.publish("offer", Long.toString(next));
+        }
+    }
+
+    /** "event data" of every event sent to the client. */
+    private static List<String> sent(SseClient client) {
+        ArgumentCaptor<byte[]> events = ArgumentCaptor.forClass(byte[].class);
+        verify(client, atLeast(0)).send(events.capture());
+        return events.getAllValues().stream()
+            .map(bytes -> new String(bytes, StandardCharsets.UTF_8))
+            .map(SseChannelTest::eventAndData)
+            .collect(Collectors.toList());
+    }
+
+    private static String eventAndData(String event) {
+        String name = event.replaceAll("(?s).*event: ([^\\n]*)\\n.*", "$1");
+        String data = event.replaceAll("(?s).*data: ([^\\n]*)\\n.*", "$1");
+        return name + " " + data;
+    }
+}
@@ -0,0 +1,91 @@
+package com.collectibles.utils;
+
+import org.junit.jupiter.api.Test;
+import spark.Request;
+import spark.Response;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResourceVersionsTest {
+
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
+    private final ResourceVersions versions = new ResourceVersions();
+    private final Response res = mock(Response.class);
+
+    @Test
+    void matchingEtagIsNotModified() {
+        versions.bump("item1");
+        Request req = request("If-None-Match", versions.etag("item1"));
+        assertTrue(versions.notModified(req, res, "item1", () -> true));
+        verify(res).status(304);
+    }
+
+    @Test
+    void bumpChangesTheEtag() {
+        String etag = versions.etag("item1");
+        versions.bump("item1");
+        assertFalse(versions.notModified(request("If-None-Match", etag), res, "item1", () -> true));
+        verify(res, never()).status(304);
+    }
+
+    @Test
+    void wildcardOnlyMatchesExistingResources() {
+        assertTrue(versions.notModified(request("If-None-Match", "*"), res, "item1", () -> true));
+        assertFalse(versions.notModified(request("If-None-Match", "*"), res, "nope", () -> false));
+    }
+
+    @Test
+    void unknownKeysGetNoValidatorsAndNeverMatch() {
+        String unknownEtag = versions.etag("nope");
+        long bootSeconds = versions.lastModifiedSeconds("nope");
+        assertFalse(versions.notModified(request("If-None-Match", unknownEtag), res, "nope", () -> false));
+        assertFalse(versions.notModified(request("If-Modified-Since", httpDate(bootSeconds + 1)), res, "nope", () -> false));
+        verify(res, never()).header(anyString(), anyString());
+        verify(res, never()).status(304);
+    }
+
+    @Test
+    void existingKeysAreLookedUpOnce() {
+        AtomicInteger lookups = new AtomicInteger();
+        BooleanSupplier exists = () -> lookups.incrementAndGet() > 0;
+        String etag = versions.etag("item1");
+        assertTrue(versions.notModified(request("If-None-Match", etag), res, "item1", exists));
+        assertTrue(versions.notModified(request("If-None-Match", etag), res, "item1", exists));
+        assertEquals(1, lookups.get());
+        verify(res, times(2)).header("ETag", etag);
+    }
+
+    @Test
+    void ifModifiedSinceIgnoresChangesInTheSameSecond() {
+        versions.bump("item1");
+        long lastModified = versions.lastModifiedSeconds("item1");
+        // The client's copy may predate a change later in that second
+        assertFalse(versions.notModified(request("If-Modified-Since", httpDate(lastModified)), res, "item1", () -> true));
+        assertTrue(versions.notModified(request("If-Modified-Since", httpDate(lastModified + 1)), res, "item1", () -> true));
+    }
+
+    private static Request request(String header, String value) {
+        Request req = mock(Request.class);
+        when(req.headers(header)).thenReturn(value);
+        return req;
+    }
+
+    private static String httpDate(long epochSeconds) {
+        return HTTP_DATE.format(Instant.ofEpochSecond(epochSeconds));
+    }
+}